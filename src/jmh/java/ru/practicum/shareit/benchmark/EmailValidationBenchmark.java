@@ -0,0 +1,43 @@
+package ru.practicum.shareit.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.validation.EmailValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка формата email при создании и обновлении пользователя.
+ * Для некорректных адресов измеряется путь с исключением; предупреждения в лог отключены, чтобы не мерить консоль.
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=EmailValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidationBenchmark {
+
+    @Param({"ivan.petrov@shareit.ru", "very.long.name.with.many.parts@mail.subdomain.example.com",
+            "no-at-sign.shareit.ru", "user@localhost"})
+    private String email;
+
+    @Setup
+    public void silenceLog() {
+        ((Logger) LoggerFactory.getLogger(EmailValidator.class)).setLevel(Level.OFF);
+    }
+
+    @Benchmark
+    public boolean validateFormat() {
+        try {
+            EmailValidator.validateFormat(email);
+            return true;
+        } catch (ValidationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нагрузочный тест /bookings и /items на платформенных и виртуальных потоках.
+ * Приложение поднимается в форке JMH на H2 (профиль test) с маленьким пулом соединений;
+ * 200 потоков JMH шлют запросы по HTTP. Mode.SampleTime даёт перцентили (p0.99), Mode.Throughput - запросы в мс,
+ * счётчик rejected - ответы 503 от ConcurrencyLimitFilter.
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=HttpLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(200)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class HttpLoadBenchmark {
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS_PER_ITEM = 5;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param("10")
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long ownerId;
+    private long bookerId;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        String[] profiles = "virtual".equals(threads) ? new String[]{"test", "virtual"} : new String[]{"test"};
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles(profiles)
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                        "server.tomcat.threads.max=50",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize)
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .executor(Runnable::run)
+                .build();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int bookings(Outcomes outcomes) throws IOException, InterruptedException {
+        return send(get("/bookings?size=20", bookerId), outcomes);
+    }
+
+    @Benchmark
+    public int items(Outcomes outcomes) throws IOException, InterruptedException {
+        return send(get("/items?size=20", ownerId), outcomes);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long rejected;
+    }
+
+    private int send(HttpRequest request, Outcomes outcomes) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 503) {
+            outcomes.rejected++;
+        } else if (response.statusCode() != 200) {
+            throw new IllegalStateException("Неожиданный статус " + response.statusCode() + " для " + request.uri());
+        }
+        return response.body().length;
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        ownerId = create("/users", null, "{\"name\":\"owner\",\"email\":\"owner@load.test\"}");
+        bookerId = create("/users", null, "{\"name\":\"booker\",\"email\":\"booker@load.test\"}");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < ITEMS; i++) {
+            long itemId = create("/items", ownerId,
+                    "{\"name\":\"Дрель " + i + "\",\"description\":\"Аккумуляторная дрель\",\"available\":true}");
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime bookingStart = start.plusDays(j * 2L);
+                long bookingId = create("/bookings", bookerId, "{\"itemId\":" + itemId
+                        + ",\"start\":\"" + bookingStart + "\",\"end\":\"" + bookingStart.plusDays(1) + "\"}");
+                if (j % 2 == 0) {
+                    client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + bookingId + "?approved=true"))
+                            .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                            .build(), HttpResponse.BodyHandlers.discarding());
+                }
+            }
+        }
+    }
+
+    private long create(String path, Long userId, String json) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        String body = client.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = ID.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Не удалось создать " + path + ": " + body);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+    }
+}
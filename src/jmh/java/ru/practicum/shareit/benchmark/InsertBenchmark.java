@@ -0,0 +1,204 @@
+package ru.practicum.shareit.benchmark;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставки в секунду при прежней генерации id (identity: insert по одной строке с чтением ключа)
+ * и при последовательности с блоком из 50 id (пакет из 50 insert'ов на один nextval).
+ * Оба варианта на JDBC повторяют то, что Hibernate отправляет в базу; hibernateSaveAll - то же через ItemRepository.
+ * По умолчанию - H2 в режиме TCP-сервера, чтобы каждый запрос был сетевым обменом, как с настоящей базой.
+ * Postgres: -Djmh.args="InsertBenchmark -p url=jdbc:postgresql://localhost:5432/shareit"
+ * (схема должна быть создана приложением, пользователь и пароль - параметры user и password).
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=InsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(InsertBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    static final int ROWS = 1000;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String H2_TCP = "h2-tcp";
+    // Копия прежней таблицы items с identity, с тем же внешним ключом и индексом
+    private static final String[] IDENTITY_TABLE = {
+            "CREATE TABLE IF NOT EXISTS items_identity_benchmark ("
+                    + " id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,"
+                    + " name VARCHAR(255) NOT NULL, description VARCHAR(1000) NOT NULL,"
+                    + " is_available BOOLEAN NOT NULL, owner_id BIGINT NOT NULL REFERENCES users (id))",
+            "CREATE INDEX IF NOT EXISTS idx_items_identity_benchmark_owner ON items_identity_benchmark (owner_id, id)"
+    };
+
+    @Param(H2_TCP)
+    private String url;
+
+    @Param("sa")
+    private String user;
+
+    @Param("")
+    private String password;
+
+    private Server server;
+    private Connection connection;
+    private PreparedStatement identityInsert;
+    private PreparedStatement sequenceInsert;
+    private PreparedStatement nextId;
+    private long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String jdbcUrl = url;
+        if (H2_TCP.equals(url)) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            jdbcUrl = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:insert-benchmark;MODE=PostgreSQL";
+        }
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement statement = connection.createStatement()) {
+            if (server != null) {
+                statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+            }
+            for (String ddl : IDENTITY_TABLE) {
+                statement.execute(ddl);
+            }
+            statement.execute("insert into users (name, email) values ('owner', 'owner-"
+                    + System.nanoTime() + "@insert.bench')");
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select max(id) from users")) {
+            rs.next();
+            ownerId = rs.getLong(1);
+        }
+        connection.setAutoCommit(false);
+        identityInsert = connection.prepareStatement("insert into items_identity_benchmark "
+                + "(name, description, is_available, owner_id) values (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+        sequenceInsert = connection.prepareStatement(
+                "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)");
+        nextId = connection.prepareStatement("select nextval('items_seq')");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table items_identity_benchmark");
+            statement.execute("delete from items where owner_id = " + ownerId);
+            statement.execute("delete from users where id = " + ownerId);
+        }
+        connection.commit();
+        connection.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public long identityRowByRow() throws SQLException {
+        long lastId = 0;
+        for (int i = 0; i < ROWS; i++) {
+            bindItem(identityInsert, 1, i);
+            identityInsert.executeUpdate();
+            try (ResultSet keys = identityInsert.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooledSequenceBatch() throws SQLException {
+        long id = 0;
+        long blockEnd = 0;
+        for (int i = 0; i < ROWS; i++) {
+            if (id == blockEnd) {
+                try (ResultSet rs = nextId.executeQuery()) {
+                    rs.next();
+                    blockEnd = rs.getLong(1);
+                }
+                id = blockEnd - ALLOCATION_SIZE;
+            }
+            sequenceInsert.setLong(1, ++id);
+            bindItem(sequenceInsert, 2, i);
+            sequenceInsert.addBatch();
+            if ((i + 1) % ALLOCATION_SIZE == 0) {
+                sequenceInsert.executeBatch();
+            }
+        }
+        sequenceInsert.executeBatch();
+        connection.commit();
+        return id;
+    }
+
+    @Benchmark
+    public List<Item> hibernateSaveAll(Application application) {
+        List<Item> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Item item = new Item();
+            item.setName("Дрель " + i);
+            item.setDescription("Аккумуляторная дрель");
+            item.setAvailable(true);
+            item.setOwner(application.owner);
+            items.add(item);
+        }
+        return application.itemRepository.saveAll(items);
+    }
+
+    // Приложение на H2 (профиль test) поднимается, только если выбран hibernateSaveAll
+    @State(Scope.Benchmark)
+    public static class Application {
+        private ConfigurableApplicationContext context;
+        private ItemRepository itemRepository;
+        private User owner;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = new SpringApplicationBuilder(ShareItApp.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .properties(
+                            "spring.jpa.show-sql=false",
+                            "logging.level.root=WARN",
+                            "logging.level.org.springframework.transaction.interceptor=WARN",
+                            "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                    .run();
+            itemRepository = context.getBean(ItemRepository.class);
+            User user = new User();
+            user.setName("owner");
+            user.setEmail("owner@insert.bench");
+            owner = context.getBean(UserRepository.class).save(user);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    private void bindItem(PreparedStatement statement, int firstIndex, int i) throws SQLException {
+        statement.setString(firstIndex, "Дрель " + i);
+        statement.setString(firstIndex + 1, "Аккумуляторная дрель");
+        statement.setBoolean(firstIndex + 2, true);
+        statement.setLong(firstIndex + 3, ownerId);
+    }
+}
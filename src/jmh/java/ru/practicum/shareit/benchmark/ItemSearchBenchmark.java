@@ -0,0 +1,129 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей: прежний LIKE-запрос к H2 против инвертированного индекса на одном и том же наборе вещей.
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=ItemSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+    private static final String[] NOUNS = {
+            "дрель", "палатка", "велосипед", "лестница", "перфоратор", "шуруповерт", "самокат", "проектор",
+            "гитара", "спальник", "удочка", "мангал", "пылесос", "генератор", "каяк", "drill", "tent", "bike"
+    };
+    private static final String[] ADJECTIVES = {
+            "аккумуляторная", "туристическая", "складной", "электрический", "детский", "профессиональный",
+            "лёгкий", "компактный", "новый", "надёжный", "portable", "cordless"
+    };
+    private static final String[] FILLER = {
+            "отличное", "состояние", "аренда", "на", "выходные", "в", "комплекте", "чехол", "зарядка",
+            "инструкция", "самовывоз", "из", "центра", "бережное", "обращение", "залог", "не", "нужен"
+    };
+    private static final String LIKE_QUERY = "select i.id, i.name, i.description, i.is_available, i.request_id "
+            + "from items i "
+            + "where i.is_available = true and ("
+            + " upper(i.name) like upper(concat('%', ?, '%')) "
+            + " or upper(i.description) like upper(concat('%', ?, '%')))";
+
+    @Param("1000000")
+    private int itemCount;
+
+    @Param({"дрель", "туристическая палатка"})
+    private String text;
+
+    @Param("20")
+    private int size;
+
+    private Connection connection;
+    private PreparedStatement likeStatement;
+    private ItemSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-benchmark;MODE=PostgreSQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+            statement.execute("insert into users (name, email) values ('owner', 'owner@shareit.ru')");
+        }
+        index = new ItemSearchIndex();
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, 1)")) {
+            for (int id = 1; id <= itemCount; id++) {
+                String name = pick(random, ADJECTIVES) + " " + pick(random, NOUNS);
+                String description = description(random);
+                boolean available = random.nextInt(10) > 0;
+                insert.setLong(1, id);
+                insert.setString(2, name);
+                insert.setString(3, description);
+                insert.setBoolean(4, available);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+                index.index((long) id, name, description, available);
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        likeStatement = connection.prepareStatement(LIKE_QUERY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Запрос, которым /items/search обслуживался до индекса: без лимита, с полным чтением таблицы.
+     */
+    @Benchmark
+    public void like(Blackhole blackhole) throws SQLException {
+        likeStatement.setString(1, text);
+        likeStatement.setString(2, text);
+        try (ResultSet rs = likeStatement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getLong(1));
+                blackhole.consume(rs.getString(2));
+                blackhole.consume(rs.getString(3));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Long> invertedIndex() {
+        return index.search(text, 0, size);
+    }
+
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder(pick(random, NOUNS));
+        int words = 10 + random.nextInt(30);
+        for (int i = 0; i < words; i++) {
+            description.append(' ').append(random.nextInt(4) == 0 ? pick(random, ADJECTIVES) : pick(random, FILLER));
+        }
+        return description.toString();
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Сравнивает два JSON-отчёта JMH (-rf json): для каждого бенчмарка с одинаковыми параметрами печатает
+ * прежнюю и новую оценку и изменение в процентах. Бенчмарки, которые есть только в одном отчёте, помечаются.
+ * Вывод в ASCII, как и таблица самого JMH: консоль форка не обязана быть в UTF-8.
+ * Запуск: mvn -Pjmh exec:exec@jmh-diff -Djmh.base=base.json [-Djmh.result=target/jmh-result.json]
+ */
+public final class JmhResultDiff {
+    private static final String ROW = "%-90s %14s %14s %9s  %s%n";
+
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: JmhResultDiff <base.json> <new.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        Set<String> keys = new TreeSet<>(base.keySet());
+        keys.addAll(current.keySet());
+
+        System.out.printf(ROW, "Benchmark", "Base", "New", "Delta", "Units");
+        for (String key : keys) {
+            JsonNode before = base.get(key);
+            JsonNode after = current.get(key);
+            if (before == null || after == null) {
+                JsonNode present = before != null ? before : after;
+                System.out.printf(ROW, key, before != null ? score(before) : "-", after != null ? score(after) : "-",
+                        "", unit(present) + (before == null ? " (new)" : " (removed)"));
+                continue;
+            }
+            double old = before.path("primaryMetric").path("score").asDouble();
+            double now = after.path("primaryMetric").path("score").asDouble();
+            String delta = old == 0 ? "" : String.format("%+.1f%%", (now - old) * 100 / old);
+            System.out.printf(ROW, key, score(before), score(after), delta, unit(after));
+        }
+    }
+
+    // Ключ - имя бенчмарка, режим и параметры, чтобы прогоны с разными @Param не смешивались
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(shortName(result.path("benchmark").asText()))
+                    .append(" [").append(result.path("mode").asText()).append(']');
+            result.path("params").fields()
+                    .forEachRemaining(param -> key.append(' ').append(param.getKey()).append('=')
+                            .append(param.getValue().asText()));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        int type = benchmark.lastIndexOf('.', method - 1);
+        return benchmark.substring(type + 1);
+    }
+
+    private static String score(JsonNode result) {
+        JsonNode metric = result.path("primaryMetric");
+        return String.format("%.3f +- %.3f", metric.path("score").asDouble(), metric.path("scoreError").asDouble());
+    }
+
+    private static String unit(JsonNode result) {
+        return result.path("primaryMetric").path("scoreUnit").asText();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Мапперы на горячих путях: бронирование в ответ API (из сущности и из проекции)
+ * и карточка вещи со встроенными комментариями.
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=MapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Booking booking;
+    private BookingView bookingView;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = new User();
+        owner.setId(1L);
+        User booker = new User();
+        booker.setId(2L);
+        Item item = new Item();
+        item.setId(10L);
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель-шуруповерт");
+        item.setAvailable(true);
+        item.setOwner(owner);
+
+        booking = new Booking();
+        booking.setId(100L);
+        booking.setStart(now.plusDays(1));
+        booking.setEnd(now.plusDays(2));
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingView = new BookingView(100L, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED,
+                2L, 10L, "Дрель", 1L);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingResponseFromEntity() {
+        return BookingMapper.toBookingResponseDto(booking);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingResponseFromView() {
+        return BookingMapper.toBookingResponseDto(bookingView);
+    }
+
+    @Benchmark
+    public ItemWithBookingsDto itemWithBookings(ItemCard card) {
+        return ItemMapper.toItemWithBookingsDto(card.itemView, card.lastBooking, card.nextBooking, card.comments,
+                card.comments.size());
+    }
+
+    // Отдельное состояние, чтобы число комментариев не размножало бенчмарки бронирований
+    @State(Scope.Benchmark)
+    public static class ItemCard {
+        @Param({"10", "1000"})
+        private int commentCount;
+
+        private ItemView itemView;
+        private BookingShortView lastBooking;
+        private BookingShortView nextBooking;
+        private List<CommentView> comments;
+
+        @Setup
+        public void setUp() {
+            LocalDateTime now = LocalDateTime.now();
+            itemView = new ItemView(10L, "Дрель", "Аккумуляторная дрель-шуруповерт", true, 1L, null);
+            lastBooking = new BookingShortView(99L, 10L, 2L);
+            nextBooking = new BookingShortView(100L, 10L, 2L);
+            comments = new ArrayList<>(commentCount);
+            for (int i = 0; i < commentCount; i++) {
+                comments.add(new CommentView((long) i, 10L, "Отличная дрель, брал на выходные " + i,
+                        "Пользователь " + i, now.minusHours(i)));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервисный слой целиком, без HTTP: список вещей владельца с последним/следующим бронированием и комментариями
+ * и бронирования владельца постранично (смещение и курсор). Контекст Spring поднимается на H2 (профиль test),
+ * данные заливаются пачками через JdbcTemplate в обход сервисов.
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args=ServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int COMMENTS_PER_ITEM = 3;
+
+    @Param("1000")
+    private int items;
+
+    @Param({"ALL", "PAST"})
+    private BookingState state;
+
+    @Param("20")
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private long ownerId;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        seed(context.getBean(JdbcTemplate.class));
+        List<BookingResponseDto> firstPage = bookingService.getBookingByOwner(ownerId, state, 0, size);
+        BookingResponseDto last = firstPage.get(firstPage.size() - 1);
+        cursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemWithBookingsDto> itemsByOwnerPage() {
+        return itemService.getItemsByOwnerAfter(ownerId, 0L, size);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingsByOwnerFirstPage() {
+        return bookingService.getBookingByOwner(ownerId, state, 0, size);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingsByOwnerDeepOffset() {
+        return bookingService.getBookingByOwner(ownerId, state, items * BOOKINGS_PER_ITEM / 2, size);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingsByOwnerAfterCursor() {
+        return bookingService.getBookingByOwnerAfter(ownerId, state, cursor, size);
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        jdbc.update("insert into users (name, email) values ('owner', 'owner@bench.test')");
+        jdbc.update("insert into users (name, email) values ('booker', 'booker@bench.test')");
+        ownerId = jdbc.queryForObject("select id from users where email = 'owner@bench.test'", Long.class);
+        long bookerId = jdbc.queryForObject("select id from users where email = 'booker@bench.test'", Long.class);
+
+        List<Object[]> itemRows = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemRows.add(new Object[]{"Дрель " + i, "Аккумуляторная дрель", true, ownerId});
+        }
+        jdbc.batchUpdate("insert into items (name, description, is_available, owner_id) values (?, ?, ?, ?)",
+                itemRows);
+        List<Long> itemIds = jdbc.queryForList("select id from items where owner_id = ? order by id", Long.class,
+                ownerId);
+
+        // Половина бронирований в прошлом, половина в будущем, чтобы у каждой вещи были последнее и следующее
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Object[]> bookingRows = new ArrayList<>(items * BOOKINGS_PER_ITEM);
+        List<Object[]> commentRows = new ArrayList<>(items * COMMENTS_PER_ITEM);
+        for (long itemId : itemIds) {
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = now.plusDays((j - BOOKINGS_PER_ITEM / 2) * 2L).plusMinutes(itemId);
+                bookingRows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)),
+                        itemId, bookerId, "APPROVED"});
+            }
+            for (int j = 0; j < COMMENTS_PER_ITEM; j++) {
+                commentRows.add(new Object[]{itemId, "Отличная дрель " + j, bookerId,
+                        Timestamp.valueOf(now.minusDays(j + 1))});
+            }
+        }
+        jdbc.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) "
+                + "values (?, ?, ?, ?, ?)", bookingRows);
+        jdbc.batchUpdate("insert into comments (item_id, text, author_id, created) values (?, ?, ?, ?)",
+                commentRows);
+    }
+}
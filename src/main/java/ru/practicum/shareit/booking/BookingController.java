@@ -4,10 +4,16 @@ import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.ConditionalResponses;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.HttpCacheProperties;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.constants.HeaderConstants;
 import ru.practicum.shareit.exception.ValidationException;
 
@@ -19,6 +25,8 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final EntityVersions entityVersions;
+    private final HttpCacheProperties httpCache;
 
     //Создать бронирование
     @PostMapping
@@ -30,6 +38,15 @@ public class BookingController {
                 .body(bookingService.createBooking(bookerId, bookingDto));
     }
 
+    // Создать несколько бронирований одним запросом: по каждой позиции - бронирование или причина отказа
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> createBookings(
+            @RequestHeader(HeaderConstants.USER_ID) Long bookerId,
+            @RequestBody List<BookingRequestDto> bookingDtos
+    ) {
+        return ResponseEntity.ok(bookingService.createBookings(bookerId, bookingDtos));
+    }
+
     //Подтвердить / отклонить бронирование
     @PatchMapping("/{bookingId}")
     public ResponseEntity<BookingResponseDto> updateBookingApproval(
@@ -46,11 +63,13 @@ public class BookingController {
     @GetMapping("/{bookingId}")
     public ResponseEntity<BookingResponseDto> getBooking(
             @RequestHeader(HeaderConstants.USER_ID) Long userId,
-            @PathVariable Long bookingId
+            @PathVariable Long bookingId,
+            WebRequest request
     ) {
-        return ResponseEntity.ok(
-                bookingService.getBooking(userId, bookingId)
-        );
+        // ETag выдаётся только прошедшему проверку доступа пользователю, поэтому 304 её не обходит
+        return ConditionalResponses.of(request, entityVersions,
+                entityVersions.eTag(EntityVersions.Kind.BOOKING, bookingId, userId),
+                httpCache.booking(), () -> bookingService.getBooking(userId, bookingId));
     }
 
     // Все бронирования пользователя как букера
@@ -59,12 +78,14 @@ public class BookingController {
             @RequestHeader(HeaderConstants.USER_ID) Long userId,
             @RequestParam(name = "state", defaultValue = "ALL") String state,
             @RequestParam(name = "from", defaultValue = "0") int from,
-            @RequestParam(name = "size", defaultValue = "10") int size
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "after", required = false) String after
     ) {
         BookingState bookingState = parseState(state);
-        return ResponseEntity.ok(
-                bookingService.getBookingByBooker(userId, bookingState, from, size)
-        );
+        List<BookingResponseDto> bookings = after != null
+                ? bookingService.getBookingByBookerAfter(userId, bookingState, after, size)
+                : bookingService.getBookingByBooker(userId, bookingState, from, size);
+        return withNextCursor(bookings, size);
     }
 
     // Все бронирования вещей владельца
@@ -73,12 +94,25 @@ public class BookingController {
             @RequestHeader(HeaderConstants.USER_ID) Long userId,
             @RequestParam(name = "state", defaultValue = "ALL") String state,
             @RequestParam(name = "from", defaultValue = "0") int from,
-            @RequestParam(name = "size", defaultValue = "10") int size
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "after", required = false) String after
     ) {
         BookingState bookingState = parseState(state);
-        return ResponseEntity.ok(
-                bookingService.getBookingByOwner(userId, bookingState, from, size)
-        );
+        List<BookingResponseDto> bookings = after != null
+                ? bookingService.getBookingByOwnerAfter(userId, bookingState, after, size)
+                : bookingService.getBookingByOwner(userId, bookingState, from, size);
+        return withNextCursor(bookings, size);
+    }
+
+    // Курсор на последний элемент полной страницы: по нему клиент запрашивает следующую через after
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingResponseDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(HeaderConstants.NEXT_CURSOR, new KeysetCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 
     private BookingState parseState(String state) {
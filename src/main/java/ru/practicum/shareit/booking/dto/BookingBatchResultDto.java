@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+
+/**
+ * Результат одной позиции пакетного бронирования: созданное бронирование либо причина отказа.
+ * index - номер позиции в запросе.
+ */
+@Data
+public class BookingBatchResultDto {
+    private int index;
+    private BookingResponseDto booking;
+    private String error;
+}
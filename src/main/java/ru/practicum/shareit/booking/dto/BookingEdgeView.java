@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Крайнее (последнее, следующее или ближайшее к окончанию) бронирование вещи.
+ */
+public record BookingEdgeView(Long id, Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+
+    public BookingShortView toShortView() {
+        return new BookingShortView(id, itemId, bookerId);
+    }
+}
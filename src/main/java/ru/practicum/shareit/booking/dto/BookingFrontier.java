@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Последнее завершившееся и ближайшее будущее подтверждённые бронирования вещи; любое из них может отсутствовать.
+ */
+public record BookingFrontier(BookingShortView lastBooking, BookingShortView nextBooking) {
+}
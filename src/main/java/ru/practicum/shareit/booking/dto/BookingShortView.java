@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Проекция последнего/следующего бронирования вещи для карточки вещи.
+ */
+public record BookingShortView(Long id, Long itemId, Long bookerId) {
+}
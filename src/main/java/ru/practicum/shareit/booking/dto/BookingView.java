@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция бронирования ровно с теми колонками, которые нужны BookingResponseDto,
+ * плюс владелец вещи для проверки прав доступа.
+ */
+public record BookingView(
+        Long id,
+        LocalDateTime start,
+        LocalDateTime end,
+        BookingStatus status,
+        Long bookerId,
+        Long itemId,
+        String itemName,
+        Long ownerId
+) {
+}
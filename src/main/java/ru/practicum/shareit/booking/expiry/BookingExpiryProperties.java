@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Отмена просроченных бронирований (shareit.booking-expiry.*): строк на одно обновление
+ * и ширина интервала по дате начала, который обходится за один проход.
+ * Период запуска - shareit.booking-expiry.interval.
+ */
+@ConfigurationProperties("shareit.booking-expiry")
+public record BookingExpiryProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("1h") Duration bucket
+) {
+}
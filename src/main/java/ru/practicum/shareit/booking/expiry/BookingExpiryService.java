@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingSlot;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переводит в CANCELED бронирования, которые так и остались WAITING после наступления даты начала.
+ * Таблица обходится интервалами по start_date от отметки, до которой всё уже отменено, до текущего момента:
+ * новые бронирования начинаются в будущем, поэтому повторно просматривать старые интервалы не нужно.
+ * Отметка хранится в памяти и после перезапуска восстанавливается по самому раннему WAITING.
+ * После пустого интервала обход переходит сразу к следующему WAITING, а не к следующему интервалу:
+ * давние строки не стоят запроса на каждый bucket с момента их создания.
+ * В конце прохода из BookingIntervalIndex удаляются интервалы, закончившиеся к его началу.
+ * Метрики: shareit.bookings.expired (отменено строк) и shareit.bookings.expiry (время прохода).
+ */
+@Slf4j
+@Component
+public class BookingExpiryService {
+    // Бронирование, созданное до прохода, может быть зафиксировано после него: конец прошлого интервала просматривается снова
+    private static final Duration RESCAN = Duration.ofMinutes(5);
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingExpiryProperties properties;
+    private final OutboxWriter outboxWriter;
+    private final EntityVersions entityVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter expiredCounter;
+    private final Timer runTimer;
+    private volatile LocalDateTime expiredUpTo;
+
+    public BookingExpiryService(BookingRepository bookingRepository,
+                                BookingIntervalIndex bookingIntervalIndex,
+                                BookingExpiryProperties properties,
+                                OutboxWriter outboxWriter,
+                                EntityVersions entityVersions,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.properties = properties;
+        this.outboxWriter = outboxWriter;
+        this.entityVersions = entityVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiredCounter = Counter.builder("shareit.bookings.expired")
+                .description("Бронирования, отменённые из-за наступления даты начала")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("shareit.bookings.expiry")
+                .description("Длительность прохода отмены просроченных бронирований")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.interval:PT1M}")
+    public void expireWaiting() {
+        runTimer.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now();
+            LocalDateTime from = expiredUpTo != null ? expiredUpTo.minus(RESCAN)
+                    : bookingRepository.findEarliestStart(BookingStatus.WAITING).orElse(cutoff);
+            int expired = 0;
+            while (from.isBefore(cutoff)) {
+                LocalDateTime to = from.plus(properties.bucket());
+                if (to.isAfter(cutoff)) {
+                    to = cutoff;
+                }
+                int bucketExpired = expireStartingBetween(from, to);
+                expired += bucketExpired;
+                from = bucketExpired > 0 ? to
+                        : bookingRepository.findEarliestStartFrom(BookingStatus.WAITING, to).orElse(cutoff);
+            }
+            expiredUpTo = cutoff;
+            bookingIntervalIndex.pruneEndedBefore(cutoff);
+            if (expired > 0) {
+                log.info("Отменено {} бронирований, не подтверждённых до даты начала", expired);
+            }
+        });
+    }
+
+    private int expireStartingBetween(LocalDateTime from, LocalDateTime to) {
+        int expired = 0;
+        List<BookingSlot> batch;
+        do {
+            // Каждая пачка - отдельная короткая транзакция: блокировки строк не копятся на весь проход
+            batch = transactionTemplate.execute(status -> {
+                List<BookingSlot> slots = bookingRepository.lockSlotsStartingBetween(
+                        BookingStatus.WAITING, from, to, Limit.of(properties.batchSize()));
+                if (!slots.isEmpty()) {
+                    List<Long> bookingIds = slots.stream().map(BookingSlot::bookingId).toList();
+                    bookingRepository.updateStatus(bookingIds, BookingStatus.CANCELED);
+                    outboxWriter.recordAll(AggregateType.BOOKING, bookingIds, OutboxEventType.UPDATED);
+                }
+                return slots;
+            });
+            batch.forEach(slot -> bookingIntervalIndex.remove(slot.itemId(), slot.bookingId()));
+            entityVersions.bumpAll(EntityVersions.Kind.BOOKING, batch.stream().map(BookingSlot::bookingId).toList());
+            expiredCounter.increment(batch.size());
+            expired += batch.size();
+        } while (batch.size() == properties.batchSize());
+        return expired;
+    }
+}
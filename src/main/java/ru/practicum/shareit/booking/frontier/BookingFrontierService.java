@@ -0,0 +1,192 @@
+package ru.practicum.shareit.booking.frontier;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingEdgeView;
+import ru.practicum.shareit.booking.dto.BookingFrontier;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingFrontier;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingFrontierRepository;
+import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает таблицу item_booking_frontier: последнее и следующее подтверждённые бронирования каждой вещи.
+ * Строка пересчитывается в транзакции подтверждения бронирования и планировщиком, когда наступает её validUntil
+ * (начало следующего или окончание текущего бронирования). Пересчёт - оконные запросы по бронированиям этих вещей.
+ * Чтение ничего не пишет: недостающие и устаревшие строки считаются в памяти (возможно, по реплике),
+ * а их id запоминаются - сохраняет строки на основной базе ближайший проход планировщика.
+ * После записи увеличиваются версии карточек и списков вещей владельцев (ETag).
+ */
+@Slf4j
+@Component
+public class BookingFrontierService {
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final ItemBookingFrontierRepository frontierRepository;
+    private final EntityFinder entityFinder;
+    private final EntityVersions entityVersions;
+    private final TransactionTemplate writeTransaction;
+    private final Set<Long> unsavedItemIds = ConcurrentHashMap.newKeySet();
+
+    public BookingFrontierService(BookingRepository bookingRepository,
+                                  ItemBookingFrontierRepository frontierRepository,
+                                  EntityFinder entityFinder,
+                                  EntityVersions entityVersions,
+                                  PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.frontierRepository = frontierRepository;
+        this.entityFinder = entityFinder;
+        this.entityVersions = entityVersions;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Map<Long, BookingFrontier> getFrontiers(List<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingFrontier> frontiers = new HashMap<>();
+        for (ItemBookingFrontier frontier : frontierRepository.findAllById(itemIds)) {
+            if (frontier.getValidUntil() == null || frontier.getValidUntil().isAfter(now)) {
+                frontiers.put(frontier.getItemId(), toFrontier(frontier));
+            }
+        }
+        if (frontiers.size() < itemIds.size()) {
+            List<Long> missing = itemIds.stream()
+                    .filter(itemId -> !frontiers.containsKey(itemId))
+                    .toList();
+            compute(missing).forEach(frontier -> frontiers.put(frontier.getItemId(), toFrontier(frontier)));
+            unsavedItemIds.addAll(missing);
+        }
+        return frontiers;
+    }
+
+    /**
+     * Пересчёт внутри пишущей транзакции, изменившей бронирования вещи; версии увеличиваются после её фиксации.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Long itemId) {
+        compute(List.of(itemId)).forEach(this::save);
+        TransactionHooks.afterCommit(() -> bumpVersions(List.of(itemId)));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.frontier.refresh-interval:PT30S}")
+    public void refreshStale() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int refreshed = 0;
+        List<Long> stale;
+        do {
+            stale = writeTransaction.execute(status -> {
+                List<Long> itemIds = frontierRepository.findStaleItemIds(startedAt, Limit.of(REFRESH_BATCH_SIZE));
+                compute(itemIds).forEach(this::save);
+                return itemIds;
+            });
+            bumpVersions(stale);
+            refreshed += stale.size();
+        } while (stale.size() == REFRESH_BATCH_SIZE);
+        List<Long> unsaved = List.copyOf(unsavedItemIds);
+        unsavedItemIds.removeAll(unsaved);
+        for (int from = 0; from < unsaved.size(); from += REFRESH_BATCH_SIZE) {
+            List<Long> batch = unsaved.subList(from, Math.min(from + REFRESH_BATCH_SIZE, unsaved.size()));
+            writeTransaction.executeWithoutResult(status -> compute(batch).forEach(this::save));
+            bumpVersions(batch);
+            refreshed += batch.size();
+        }
+        if (refreshed > 0) {
+            log.debug("Пересчитаны последнее/следующее бронирования для {} вещей", refreshed);
+        }
+    }
+
+    private List<ItemBookingFrontier> compute(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingEdgeView> lastByItemId = byItemId(
+                bookingRepository.findLastBookings(itemIds, now, BookingStatus.APPROVED));
+        Map<Long, BookingEdgeView> nextByItemId = byItemId(
+                bookingRepository.findNextBookings(itemIds, now, BookingStatus.APPROVED));
+        Map<Long, BookingEdgeView> endingByItemId = byItemId(
+                bookingRepository.findEndingBookings(itemIds, now, BookingStatus.APPROVED));
+
+        List<ItemBookingFrontier> frontiers = new ArrayList<>(itemIds.size());
+        Set<Long> uniqueItemIds = new HashSet<>(itemIds);
+        for (Long itemId : uniqueItemIds) {
+            BookingEdgeView last = lastByItemId.get(itemId);
+            BookingEdgeView next = nextByItemId.get(itemId);
+            BookingEdgeView ending = endingByItemId.get(itemId);
+
+            ItemBookingFrontier frontier = new ItemBookingFrontier();
+            frontier.setItemId(itemId);
+            if (last != null) {
+                frontier.setLastBookingId(last.id());
+                frontier.setLastBookerId(last.bookerId());
+            }
+            if (next != null) {
+                frontier.setNextBookingId(next.id());
+                frontier.setNextBookerId(next.bookerId());
+            }
+            // Следующее станет текущим в момент начала, последнее сменится в момент окончания ближайшего
+            LocalDateTime validUntil = next != null ? next.start() : null;
+            if (ending != null && (validUntil == null || ending.end().isBefore(validUntil))) {
+                validUntil = ending.end();
+            }
+            frontier.setValidUntil(validUntil);
+            frontier.setComputedAt(now);
+            frontiers.add(frontier);
+        }
+        return frontiers;
+    }
+
+    // Вставка и обновление раздельно: параллельный пересчёт той же вещи не должен затирать более свежий
+    private void save(ItemBookingFrontier frontier) {
+        if (frontierRepository.updateIfOlder(frontier) == 0 && frontierRepository.insertIfAbsent(frontier) == 0) {
+            frontierRepository.updateIfOlder(frontier);
+        }
+    }
+
+    private void bumpVersions(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        entityVersions.bumpAll(EntityVersions.Kind.ITEM, itemIds);
+        entityVersions.bumpAll(EntityVersions.Kind.OWNER, entityFinder.getItems(itemIds).values().stream()
+                .map(item -> item.getOwner().getId())
+                .distinct()
+                .toList());
+    }
+
+    private static Map<Long, BookingEdgeView> byItemId(List<BookingEdgeView> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingEdgeView::itemId, Function.identity()));
+    }
+
+    private static BookingFrontier toFrontier(ItemBookingFrontier frontier) {
+        BookingShortView last = frontier.getLastBookingId() == null ? null
+                : new BookingShortView(frontier.getLastBookingId(), frontier.getItemId(), frontier.getLastBookerId());
+        BookingShortView next = frontier.getNextBookingId() == null ? null
+                : new BookingShortView(frontier.getNextBookingId(), frontier.getItemId(), frontier.getNextBookerId());
+        return new BookingFrontier(last, next);
+    }
+}
@@ -0,0 +1,198 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Индекс активных (WAITING и APPROVED) бронирований по вещам.
+ * Прогревается из БД при старте и поддерживается сервисом бронирований,
+ * так что проверки занятости не обращаются к таблице bookings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<BookingSlot> slots = bookingRepository.findSlotsByStatusInAndEndAfter(ACTIVE_STATUSES, LocalDateTime.now());
+        for (BookingSlot slot : slots) {
+            add(slot.itemId(), slot.bookingId(), slot.start(), slot.end());
+        }
+        log.info("Индекс бронирований прогрет: {} интервалов по {} вещам", slots.size(), timelines.size());
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return true;
+        }
+        timeline.lock().lock();
+        try {
+            return timeline.latestConflictEnd(start, end) == null;
+        } finally {
+            timeline.lock().unlock();
+        }
+    }
+
+    public LocalDateTime nextFreeStart(Long itemId, LocalDateTime from, Duration duration) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return from;
+        }
+        timeline.lock().lock();
+        try {
+            return timeline.nextFreeStart(from, duration);
+        } finally {
+            timeline.lock().unlock();
+        }
+    }
+
+    /**
+     * Атомарно для вещи проверяет, что интервал свободен, сохраняет бронирование и добавляет его в индекс.
+     * Интервал занимается до фиксации транзакции и освобождается, если она откатится.
+     */
+    public Booking reserve(Long itemId, LocalDateTime start, LocalDateTime end, Supplier<Booking> saver) {
+        ItemTimeline timeline = timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+        timeline.lock().lock();
+        try {
+            if (timeline.latestConflictEnd(start, end) != null) {
+                log.warn("Вещь id={} уже забронирована на период start={} end={}", itemId, start, end);
+                throw new ConflictException("Вещь уже забронирована на указанный период");
+            }
+            Booking saved = saver.get();
+            timeline.add(saved.getId(), start, end);
+            TransactionHooks.afterRollback(() -> remove(itemId, saved.getId()));
+            return saved;
+        } finally {
+            timeline.lock().unlock();
+        }
+    }
+
+    /**
+     * Пакетный вариант reserve. Линии всех вещей пакета блокируются в порядке id, чтобы встречные пакеты
+     * не заблокировали друг друга. Бронирования, пересекающиеся с индексом или с предыдущими позициями пакета,
+     * отклоняются, остальные сохраняются одним вызовом saver и добавляются в индекс.
+     * Возвращает список той же длины: сохранённое бронирование или null, если период занят.
+     */
+    public List<Booking> reserveAll(List<Booking> bookings, Function<List<Booking>, List<Booking>> saver) {
+        NavigableMap<Long, ItemTimeline> locked = new TreeMap<>();
+        for (Booking booking : bookings) {
+            locked.computeIfAbsent(booking.getItem().getId(),
+                    itemId -> timelines.computeIfAbsent(itemId, id -> new ItemTimeline()));
+        }
+        locked.values().forEach(timeline -> timeline.lock().lock());
+        List<Booking> accepted = new ArrayList<>(bookings.size());
+        Booking[] reserved = new Booking[bookings.size()];
+        try {
+            // До сохранения id нет: принятые позиции занимают интервал под временным отрицательным id
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking booking = bookings.get(i);
+                ItemTimeline timeline = locked.get(booking.getItem().getId());
+                if (timeline.latestConflictEnd(booking.getStart(), booking.getEnd()) != null) {
+                    log.warn("Вещь id={} уже забронирована на период start={} end={}",
+                            booking.getItem().getId(), booking.getStart(), booking.getEnd());
+                    continue;
+                }
+                timeline.add(temporaryId(i), booking.getStart(), booking.getEnd());
+                accepted.add(booking);
+                reserved[i] = booking;
+            }
+            List<Booking> saved = accepted.isEmpty() ? List.of() : saver.apply(accepted);
+            for (int i = 0, next = 0; i < reserved.length; i++) {
+                if (reserved[i] != null) {
+                    reserved[i] = saved.get(next++);
+                    ItemTimeline timeline = locked.get(reserved[i].getItem().getId());
+                    timeline.remove(temporaryId(i));
+                    timeline.add(reserved[i].getId(), reserved[i].getStart(), reserved[i].getEnd());
+                    Booking booking = reserved[i];
+                    TransactionHooks.afterRollback(() -> remove(booking.getItem().getId(), booking.getId()));
+                }
+            }
+            return Arrays.asList(reserved);
+        } finally {
+            for (int i = 0; i < bookings.size(); i++) {
+                locked.get(bookings.get(i).getItem().getId()).remove(temporaryId(i));
+            }
+            locked.descendingMap().values().forEach(timeline -> timeline.lock().unlock());
+        }
+    }
+
+    public void sync(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (ACTIVE_STATUSES.contains(booking.getStatus())) {
+            add(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+        } else {
+            remove(itemId, booking.getId());
+        }
+    }
+
+    public void remove(Long itemId, Long bookingId) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return;
+        }
+        timeline.lock().lock();
+        try {
+            timeline.remove(bookingId);
+        } finally {
+            timeline.lock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет интервалы, закончившиеся до момента cutoff: они больше не участвуют в проверках пересечения,
+     * а самый длинный из них расширял бы каждый поиск. Вызывается планировщиком отмены просроченных бронирований.
+     * Пустые линии остаются в карте: удаление гонялось бы с reserve, уже получившим ссылку на линию.
+     */
+    public int pruneEndedBefore(LocalDateTime cutoff) {
+        int pruned = 0;
+        for (ItemTimeline timeline : timelines.values()) {
+            timeline.lock().lock();
+            try {
+                pruned += timeline.pruneEndedBefore(cutoff);
+            } finally {
+                timeline.lock().unlock();
+            }
+        }
+        return pruned;
+    }
+
+    private static Long temporaryId(int position) {
+        return -1L - position;
+    }
+
+    private void add(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+        timeline.lock().lock();
+        try {
+            timeline.add(bookingId, start, end);
+        } finally {
+            timeline.lock().unlock();
+        }
+    }
+}
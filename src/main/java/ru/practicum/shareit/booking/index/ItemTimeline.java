@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Активные бронирования одной вещи, упорядоченные по началу интервала.
+ * Пересечение ищется только среди интервалов, начавшихся не раньше {@code start - maxDuration},
+ * поэтому запрос стоит O(log n + k), где k - число действительно пересекающихся интервалов.
+ * maxDuration только растёт при добавлении и пересчитывается, когда закончившиеся интервалы удаляются.
+ * Не потокобезопасен сам по себе: {@link BookingIntervalIndex} работает с ним под {@link #lock()}.
+ */
+class ItemTimeline {
+    private static final Comparator<SlotKey> ORDER = Comparator
+            .comparing(SlotKey::start)
+            .thenComparing(SlotKey::bookingId);
+
+    private final NavigableMap<SlotKey, LocalDateTime> slots = new TreeMap<>(ORDER);
+    private final Map<Long, SlotKey> keysByBookingId = new HashMap<>();
+    // Не synchronized: под блокировкой идёт запись в БД, а монитор закрепил бы виртуальный поток за несущим
+    private final Lock lock = new ReentrantLock();
+    private Duration maxDuration = Duration.ZERO;
+
+    Lock lock() {
+        return lock;
+    }
+
+    void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        remove(bookingId);
+        SlotKey key = new SlotKey(start, bookingId);
+        slots.put(key, end);
+        keysByBookingId.put(bookingId, key);
+        Duration duration = Duration.between(start, end);
+        if (duration.compareTo(maxDuration) > 0) {
+            maxDuration = duration;
+        }
+    }
+
+    void remove(Long bookingId) {
+        SlotKey key = keysByBookingId.remove(bookingId);
+        if (key != null) {
+            slots.remove(key);
+        }
+    }
+
+    /**
+     * Удаляет закончившиеся интервалы и пересчитывает maxDuration по оставшимся.
+     */
+    int pruneEndedBefore(LocalDateTime cutoff) {
+        int pruned = 0;
+        Duration longest = Duration.ZERO;
+        Iterator<Map.Entry<SlotKey, LocalDateTime>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SlotKey, LocalDateTime> slot = iterator.next();
+            if (!slot.getValue().isAfter(cutoff)) {
+                iterator.remove();
+                keysByBookingId.remove(slot.getKey().bookingId());
+                pruned++;
+            } else {
+                Duration duration = Duration.between(slot.getKey().start(), slot.getValue());
+                if (duration.compareTo(longest) > 0) {
+                    longest = duration;
+                }
+            }
+        }
+        maxDuration = longest;
+        return pruned;
+    }
+
+    /**
+     * Возвращает максимальное окончание среди бронирований, пересекающих [start, end),
+     * или {@code null}, если интервал свободен.
+     */
+    LocalDateTime latestConflictEnd(LocalDateTime start, LocalDateTime end) {
+        SlotKey from = new SlotKey(start.minus(maxDuration), Long.MIN_VALUE);
+        SlotKey to = new SlotKey(end, Long.MIN_VALUE);
+        LocalDateTime latestEnd = null;
+        for (LocalDateTime slotEnd : slots.subMap(from, true, to, false).values()) {
+            if (slotEnd.isAfter(start) && (latestEnd == null || slotEnd.isAfter(latestEnd))) {
+                latestEnd = slotEnd;
+            }
+        }
+        return latestEnd;
+    }
+
+    LocalDateTime nextFreeStart(LocalDateTime from, Duration duration) {
+        LocalDateTime candidate = from;
+        LocalDateTime conflictEnd = latestConflictEnd(candidate, candidate.plus(duration));
+        while (conflictEnd != null) {
+            candidate = conflictEnd;
+            conflictEnd = latestConflictEnd(candidate, candidate.plus(duration));
+        }
+        return candidate;
+    }
+
+    private record SlotKey(LocalDateTime start, Long bookingId) {
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.booking.mapper;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
@@ -30,6 +32,27 @@ public class BookingMapper {
         return dto;
     }
 
+    public static BookingResponseDto toBookingResponseDto(BookingView view) {
+        if (view == null) {
+            return null;
+        }
+        BookingResponseDto dto = new BookingResponseDto();
+        dto.setId(view.id());
+        dto.setStart(view.start());
+        dto.setEnd(view.end());
+        dto.setStatus(view.status());
+
+        BookingResponseDto.BookerShortDto bookerDto = new BookingResponseDto.BookerShortDto();
+        bookerDto.setId(view.bookerId());
+        dto.setBooker(bookerDto);
+
+        BookingResponseDto.ItemShortDto itemDto = new BookingResponseDto.ItemShortDto();
+        itemDto.setId(view.itemId());
+        itemDto.setName(view.itemName());
+        dto.setItem(itemDto);
+        return dto;
+    }
+
     public static Booking toBooking(BookingRequestDto dto, Item item, User booker) {
 
         Booking booking = new Booking();
@@ -51,6 +74,15 @@ public class BookingMapper {
         dto.setBookerId(booking.getBooker().getId());
         return dto;
     }
-}
 
+    public static BookingShortDto toBookingShortDto(BookingShortView view) {
+        if (view == null) {
+            return null;
+        }
 
+        BookingShortDto dto = new BookingShortDto();
+        dto.setId(view.id());
+        dto.setBookerId(view.bookerId());
+        return dto;
+    }
+}
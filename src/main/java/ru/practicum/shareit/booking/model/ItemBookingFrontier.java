@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сохранённые последнее и следующее подтверждённые бронирования вещи.
+ * Строка верна до validUntil (null - до следующего подтверждения); computedAt не даёт
+ * более старому пересчёту затереть более новый.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(name = "item_booking_frontier")
+public class ItemBookingFrontier {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingParticipant;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.common.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingQueryRepository {
+
+    Optional<BookingView> findViewById(Long bookingId);
+
+    /**
+     * Бронирования пользователя (как арендатора или как владельца вещей) в заданном состоянии,
+     * упорядоченные по (start DESC, id DESC). Если передан курсор, выборка начинается сразу после него,
+     * иначе пропускается offset строк.
+     */
+    List<BookingView> findBookings(
+            BookingParticipant participant,
+            Long userId,
+            BookingState state,
+            LocalDateTime now,
+            KeysetCursor after,
+            long offset,
+            int limit
+    );
+}
@@ -1,93 +1,71 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingEdgeView;
+import ru.practicum.shareit.booking.index.BookingSlot;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findByBookerId(Long bookerId, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(
-            Long bookerId,
-            LocalDateTime start,
-            LocalDateTime end,
-            Pageable pageable
-    );
-
-    List<Booking> findByBookerIdAndEndBefore(
-            Long bookerId,
-            LocalDateTime now,
-            Pageable pageable
-    );
-
-    List<Booking> findByBookerIdAndStartAfter(
-            Long bookerId,
-            LocalDateTime now,
-            Pageable pageable
-    );
-
-    List<Booking> findByBookerIdAndStatus(
-            Long bookerId,
-            BookingStatus status,
-            Pageable pageable
-    );
-
-    List<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(
-            Long ownerId,
-            LocalDateTime start,
-            LocalDateTime end,
-            Pageable pageable
-    );
-
-    List<Booking> findByItemOwnerIdAndEndBefore(
-            Long ownerId,
-            LocalDateTime now,
-            Pageable pageable
-    );
-
-    List<Booking> findByItemOwnerIdAndStartAfter(
-            Long ownerId,
-            LocalDateTime now,
-            Pageable pageable
-    );
-
-    List<Booking> findByItemOwnerIdAndStatus(
-            Long ownerId,
-            BookingStatus status,
-            Pageable pageable
-    );
-
-    Optional<Booking> findFirstByItemIdAndEndBeforeAndStatusOrderByEndDesc(
-            Long itemId,
-            LocalDateTime now,
-            BookingStatus status
-    );
-
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-            Long itemId,
-            LocalDateTime now,
-            BookingStatus status
-    );
-
-    List<Booking> findByItemIdInAndEndBeforeAndStatusOrderByEndDesc(
-            List<Long> itemIds,
-            LocalDateTime end,
-            BookingStatus status
-    );
-
-    List<Booking> findByItemIdInAndStartAfterAndStatusOrderByStartAsc(
-            List<Long> itemIds,
-            LocalDateTime start,
-            BookingStatus status
-    );
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+
+    /**
+     * Для каждой вещи бронирование, завершившееся последним до now.
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingEdgeView(" +
+            "r.id, r.itemId, r.bookerId, r.startDate, r.endDate) " +
+            "from (" +
+            " select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as startDate, b.end as endDate, " +
+            " row_number() over (partition by b.item.id order by b.end desc, b.id desc) as rn " +
+            " from Booking b " +
+            " where b.item.id in ?1 and b.end < ?2 and b.status = ?3" +
+            ") r " +
+            "where r.rn = 1")
+    List<BookingEdgeView> findLastBookings(List<Long> itemIds, LocalDateTime now, BookingStatus status);
+
+    /**
+     * Для каждой вещи ближайшее бронирование, начинающееся после now.
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingEdgeView(" +
+            "r.id, r.itemId, r.bookerId, r.startDate, r.endDate) " +
+            "from (" +
+            " select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as startDate, b.end as endDate, " +
+            " row_number() over (partition by b.item.id order by b.start asc, b.id asc) as rn " +
+            " from Booking b " +
+            " where b.item.id in ?1 and b.start > ?2 and b.status = ?3" +
+            ") r " +
+            "where r.rn = 1")
+    List<BookingEdgeView> findNextBookings(List<Long> itemIds, LocalDateTime now, BookingStatus status);
+
+    /**
+     * Для каждой вещи бронирование, которое закончится раньше других (включая текущее).
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingEdgeView(" +
+            "r.id, r.itemId, r.bookerId, r.startDate, r.endDate) " +
+            "from (" +
+            " select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as startDate, b.end as endDate, " +
+            " row_number() over (partition by b.item.id order by b.end asc, b.id asc) as rn " +
+            " from Booking b " +
+            " where b.item.id in ?1 and b.end >= ?2 and b.status = ?3" +
+            ") r " +
+            "where r.rn = 1")
+    List<BookingEdgeView> findEndingBookings(List<Long> itemIds, LocalDateTime now, BookingStatus status);
+
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findWithItemById(Long bookingId);
 
     boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(
             Long bookerId,
@@ -95,4 +73,48 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             BookingStatus status,
             LocalDateTime now
     );
+
+    /**
+     * Есть ли у вещи бронирование в статусе status, пересекающееся с [start, end), кроме excludedId.
+     */
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3 and b.id <> ?5")
+    boolean existsOverlapping(Long itemId, BookingStatus status, LocalDateTime start, LocalDateTime end,
+                              Long excludedId);
+
+    /**
+     * Меняет статус, только если он всё ещё expected; 0 - статус успел изменить параллельный запрос.
+     * Контекст очищается: загруженное до обновления бронирование иначе осталось бы со старым статусом.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = ?2 where b.id = ?1 and b.status = ?3")
+    int updateStatusIf(Long bookingId, BookingStatus status, BookingStatus expected);
+
+    @Query("select min(b.start) from Booking b where b.status = ?1")
+    Optional<LocalDateTime> findEarliestStart(BookingStatus status);
+
+    @Query("select min(b.start) from Booking b where b.status = ?1 and b.start >= ?2")
+    Optional<LocalDateTime> findEarliestStartFrom(BookingStatus status, LocalDateTime from);
+
+    /**
+     * Бронирования в статусе status с началом в [from, to), заблокированные до конца транзакции.
+     * Строки, уже заблокированные другой транзакцией (например, подтверждением), пропускаются (skip locked).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("select new ru.practicum.shareit.booking.index.BookingSlot(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.status = ?1 and b.start >= ?2 and b.start < ?3 " +
+            "order by b.start")
+    List<BookingSlot> lockSlotsStartingBetween(BookingStatus status, LocalDateTime from, LocalDateTime to,
+                                               Limit limit);
+
+    @Modifying
+    @Query("update Booking b set b.status = ?2 where b.id in ?1")
+    int updateStatus(Collection<Long> bookingIds, BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.index.BookingSlot(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.status in ?1 and b.end > ?2")
+    List<BookingSlot> findSlotsByStatusInAndEndAfter(List<BookingStatus> statuses, LocalDateTime now);
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.ItemBookingFrontier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingFrontierRepository extends JpaRepository<ItemBookingFrontier, Long> {
+
+    @Query("select f.itemId from ItemBookingFrontier f " +
+            "where f.validUntil <= ?1 " +
+            "order by f.validUntil")
+    List<Long> findStaleItemIds(LocalDateTime now, Limit limit);
+
+    /**
+     * Обновляет строку, только если она посчитана раньше переданной.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ItemBookingFrontier f set " +
+            "f.lastBookingId = :#{#frontier.lastBookingId}, " +
+            "f.lastBookerId = :#{#frontier.lastBookerId}, " +
+            "f.nextBookingId = :#{#frontier.nextBookingId}, " +
+            "f.nextBookerId = :#{#frontier.nextBookerId}, " +
+            "f.validUntil = :#{#frontier.validUntil}, " +
+            "f.computedAt = :#{#frontier.computedAt} " +
+            "where f.itemId = :#{#frontier.itemId} and f.computedAt < :#{#frontier.computedAt}")
+    int updateIfOlder(ItemBookingFrontier frontier);
+
+    /**
+     * Вставляет строку, если её ещё нет; возвращает 0, если строку успел вставить параллельный пересчёт.
+     * Без исключения: в Postgres ошибка оборвала бы всю транзакцию пересчёта. Нативный запрос: диалект H2
+     * в Hibernate молча отбрасывает on conflict из HQL, а сама H2 в режиме PostgreSQL его понимает.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into item_booking_frontier " +
+            "(item_id, last_booking_id, last_booker_id, next_booking_id, next_booker_id, valid_until, computed_at) " +
+            "values (:#{#frontier.itemId}, :#{#frontier.lastBookingId}, :#{#frontier.lastBookerId}, " +
+            ":#{#frontier.nextBookingId}, :#{#frontier.nextBookerId}, :#{#frontier.validUntil}, " +
+            ":#{#frontier.computedAt}) " +
+            "on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(ItemBookingFrontier frontier);
+}
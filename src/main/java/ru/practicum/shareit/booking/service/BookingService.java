@@ -1,15 +1,20 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.enums.BookingState;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
 
     BookingResponseDto createBooking(Long bookerId, BookingRequestDto bookingRequestDto);
 
+    List<BookingBatchResultDto> createBookings(Long bookerId, List<BookingRequestDto> bookingDtos);
+
     BookingResponseDto updateBookingApproval(Long ownerId, Long bookingId, boolean approved);
 
     BookingResponseDto getBooking(Long userId, Long bookingId);
@@ -18,5 +23,11 @@ public interface BookingService {
 
     List<BookingResponseDto> getBookingByOwner(Long ownerId, BookingState state, int from, int size);
 
+    List<BookingResponseDto> getBookingByBookerAfter(Long bookerId, BookingState state, String after, int size);
+
+    List<BookingResponseDto> getBookingByOwnerAfter(Long ownerId, BookingState state, String after, int size);
+
+    ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+
     void validateUserCanComment(Long userId, Long itemId);
 }
@@ -2,54 +2,133 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.booking.enums.BookingParticipant;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.frontier.BookingFrontierService;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.notification.NotificationEvent;
+import ru.practicum.shareit.notification.NotificationType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Service
 @AllArgsConstructor
+@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
     private final EntityFinder entityFinder;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingFrontierService bookingFrontierService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final EntityVersions entityVersions;
 
     @Override
+    @Transactional
     public BookingResponseDto createBooking(Long bookerId, BookingRequestDto bookingDto) {
         User booker = entityFinder.getUserOrThrow(bookerId);
         Item item = entityFinder.getItemOrThrow(bookingDto.getItemId());
 
-        if (item.getOwner().getId().equals(bookerId)) {
-            log.warn("Бронирование вещи владельцем id={} запрещено", bookerId);
-            throw new ValidationException("Бронирование вещи владельцем запрещено");
-        }
-        if (!item.isAvailable()) {
-            log.warn("Вещь id={} недоступна для бронирования", item.getId());
-            throw new ValidationException("Вещь недоступна для бронирования");
-        }
-
+        validateBookable(item, bookerId);
         validateBookingDates(bookingDto.getStart(), bookingDto.getEnd());
         Booking booking = BookingMapper.toBooking(bookingDto, item, booker);
+        Booking saved = bookingIntervalIndex.reserve(
+                item.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                () -> bookingRepository.save(booking)
+        );
 
-        return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        outboxWriter.record(AggregateType.BOOKING, saved.getId(), OutboxEventType.CREATED);
+        BookingResponseDto response = BookingMapper.toBookingResponseDto(saved);
+        notifyOwner(item, response);
+        return response;
     }
 
     @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(Long bookerId, List<BookingRequestDto> bookingDtos) {
+        if (bookingDtos == null || bookingDtos.isEmpty() || bookingDtos.size() > MAX_BATCH_SIZE) {
+            log.warn("Некорректный размер пакета бронирований: {}", bookingDtos == null ? null : bookingDtos.size());
+            throw new ValidationException("В пакете должно быть от 1 до " + MAX_BATCH_SIZE + " бронирований");
+        }
+        User booker = entityFinder.getUserOrThrow(bookerId);
+        Map<Long, Item> items = entityFinder.getItems(bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingRequestDto::getItemId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+
+        // Позиции проверяются в памяти; ошибка одной позиции не мешает остальным
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        List<BookingBatchResultDto> pending = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingBatchResultDto result = new BookingBatchResultDto();
+            result.setIndex(i);
+            results.add(result);
+            try {
+                bookings.add(toNewBooking(bookingDtos.get(i), items, booker));
+                pending.add(result);
+            } catch (ValidationException | NotFoundException e) {
+                result.setError(e.getMessage());
+            }
+        }
+
+        List<Booking> saved = bookingIntervalIndex.reserveAll(bookings, bookingRepository::saveAll);
+        for (int i = 0; i < pending.size(); i++) {
+            if (saved.get(i) == null) {
+                pending.get(i).setError("Вещь уже забронирована на указанный период");
+            } else {
+                BookingResponseDto response = BookingMapper.toBookingResponseDto(saved.get(i));
+                pending.get(i).setBooking(response);
+                notifyOwner(saved.get(i).getItem(), response);
+            }
+        }
+        outboxWriter.recordAll(AggregateType.BOOKING, saved.stream().filter(Objects::nonNull).map(Booking::getId).toList(),
+                OutboxEventType.CREATED);
+        log.info("Пакет бронирований пользователя id={}: создано {} из {}", bookerId,
+                saved.stream().filter(Objects::nonNull).count(), bookingDtos.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
     public BookingResponseDto updateBookingApproval(Long ownerId, Long bookingId, boolean approved) {
         Booking booking = entityFinder.getBookingOrThrow(bookingId);
         User owner = booking.getItem().getOwner();
@@ -63,22 +142,48 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Бронирование в данном статусе изменить нельзя");
         }
 
+        Long itemId = booking.getItem().getId();
+        if (approved) {
+            // Подтверждения одной вещи идут по очереди, поэтому проверка пересечения не устаревает до фиксации
+            itemRepository.lockById(itemId);
+            if (bookingRepository.existsOverlapping(itemId, BookingStatus.APPROVED,
+                    booking.getStart(), booking.getEnd(), bookingId)) {
+                log.warn("Бронирование id={} пересекается с подтверждённым бронированием вещи id={}", bookingId, itemId);
+                throw new ConflictException("Вещь уже забронирована на указанный период");
+            }
+        }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusIf(bookingId, status, BookingStatus.WAITING) == 0) {
+            log.warn("Статус бронирования id={} изменён параллельным запросом", bookingId);
+            throw new ConflictException("Статус бронирования уже изменён, запросите бронирование заново");
+        }
+        booking.setStatus(status);
+        outboxWriter.record(AggregateType.BOOKING, bookingId, OutboxEventType.UPDATED);
+        // Вещь заблокирована до фиксации, поэтому пересчёт в этой же транзакции не обгонит параллельное подтверждение
         if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            bookingFrontierService.refresh(itemId);
         }
-        Booking saved = bookingRepository.save(booking);
-        return BookingMapper.toBookingResponseDto(saved);
+        // Индекс видит только зафиксированный статус
+        TransactionHooks.afterCommit(() -> {
+            bookingIntervalIndex.sync(booking);
+            entityVersions.bump(EntityVersions.Kind.BOOKING, bookingId);
+        });
+        BookingResponseDto response = BookingMapper.toBookingResponseDto(booking);
+        eventPublisher.publishEvent(NotificationEvent.toUser(
+                approved ? NotificationType.BOOKING_APPROVED : NotificationType.BOOKING_REJECTED,
+                booking.getBooker().getId(), response));
+        return response;
     }
 
     @Override
     public BookingResponseDto getBooking(Long userId, Long bookingId) {
-        Booking booking = entityFinder.getBookingOrThrow(bookingId);
-        Long bookerId = booking.getBooker().getId();
-        Long ownerId = booking.getItem().getOwner().getId();
+        BookingView booking = bookingRepository.findViewById(bookingId)
+                .orElseThrow(() -> {
+                    log.warn("Бронирование с id={} не найдено", bookingId);
+                    return new NotFoundException("Бронирование с таким id не найдено");
+                });
 
-        if (!userId.equals(bookerId) && !userId.equals(ownerId)) {
+        if (!userId.equals(booking.bookerId()) && !userId.equals(booking.ownerId())) {
             log.warn("Пользователь id={} пытается получить бронирование id={} не являясь ни владельцем, ни арендатором вещи", userId, bookingId);
             throw new NotFoundException("Пользователь не имеет прав на просмотр данного бронирования");
         }
@@ -92,52 +197,47 @@ public class BookingServiceImpl implements BookingService {
             log.warn("Некорректные параметры пагинации: from={} size={}", from, size);
             throw new ValidationException("Параметры пагинации должны быть: from >= 0, size > 0");
         }
-        int page = from / size;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "start"));
-
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
-
-        switch (state) {
-            case ALL -> bookings = bookingRepository.findByBookerId(bookerId, pageable);
-            case PAST -> bookings = bookingRepository.findByBookerIdAndEndBefore(bookerId, now, pageable);
-            case CURRENT -> bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(bookerId, now, now, pageable);
-            case WAITING -> bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, pageable);
-            case REJECTED -> bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, pageable);
-            case FUTURE -> bookings = bookingRepository.findByBookerIdAndStartAfter(bookerId, now, pageable);
-            default -> throw new ValidationException("Unknown state: " + state);
-        }
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
-                .toList();
+        return findBookings(BookingParticipant.BOOKER, bookerId, state, null, from, size);
     }
 
     @Override
     public List<BookingResponseDto> getBookingByOwner(Long ownerId, BookingState state, int from, int size) {
         entityFinder.getUserOrThrow(ownerId);
-
         if (from < 0 || size <= 0) {
             log.warn("Некорректные параметры пагинации: from={} size={}", from, size);
             throw new ValidationException("Параметры пагинации должны быть: from >= 0, size > 0");
         }
+        return findBookings(BookingParticipant.OWNER, ownerId, state, null, from, size);
+    }
+
+    @Override
+    public List<BookingResponseDto> getBookingByBookerAfter(Long bookerId, BookingState state, String after, int size) {
+        entityFinder.getUserOrThrow(bookerId);
+        return findBookingsAfter(BookingParticipant.BOOKER, bookerId, state, after, size);
+    }
 
-        int page = from / size;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "start"));
+    @Override
+    public List<BookingResponseDto> getBookingByOwnerAfter(Long ownerId, BookingState state, String after, int size) {
+        entityFinder.getUserOrThrow(ownerId);
+        return findBookingsAfter(BookingParticipant.OWNER, ownerId, state, after, size);
+    }
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
-        switch (state) {
-            case ALL -> bookings = bookingRepository.findByItemOwnerId(ownerId, pageable);
-            case CURRENT -> bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(ownerId, now, now, pageable);
-            case PAST -> bookings = bookingRepository.findByItemOwnerIdAndEndBefore(ownerId, now, pageable);
-            case FUTURE -> bookings = bookingRepository.findByItemOwnerIdAndStartAfter(ownerId, now, pageable);
-            case WAITING -> bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, pageable);
-            case REJECTED -> bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, pageable);
-            default -> throw new ValidationException("Unknown state: " + state);
-        }
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
-                .toList();
+    @Override
+    public ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        // Обе проверки обслуживаются кэшем EntityFinder; для несуществующей вещи - 404, а не «свободна»
+        entityFinder.getUserOrThrow(userId);
+        entityFinder.getItemOrThrow(itemId);
+        if (from == null || to == null || !from.isBefore(to)) {
+            log.warn("Некорректный интервал проверки доступности: from={} to={}", from, to);
+            throw new ValidationException("Дата начала интервала должна быть раньше окончания");
+        }
+        ItemAvailabilityDto dto = new ItemAvailabilityDto();
+        dto.setItemId(itemId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setAvailable(bookingIntervalIndex.isFree(itemId, from, to));
+        dto.setNextFreeStart(bookingIntervalIndex.nextFreeStart(itemId, from, Duration.between(from, to)));
+        return dto;
     }
 
     @Override
@@ -154,6 +254,61 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private List<BookingResponseDto> findBookingsAfter(BookingParticipant participant,
+                                                        Long userId,
+                                                        BookingState state,
+                                                        String after,
+                                                        int size) {
+        if (size <= 0) {
+            log.warn("Некорректный размер страницы: size={}", size);
+            throw new ValidationException("Размер страницы должен быть больше нуля");
+        }
+        KeysetCursor cursor = after.isBlank() ? null : KeysetCursor.decode(after);
+        return findBookings(participant, userId, state, cursor, 0, size);
+    }
+
+    private List<BookingResponseDto> findBookings(BookingParticipant participant,
+                                                  Long userId,
+                                                  BookingState state,
+                                                  KeysetCursor after,
+                                                  long offset,
+                                                  int size) {
+        return bookingRepository.findBookings(participant, userId, state, LocalDateTime.now(), after, offset, size)
+                .stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .toList();
+    }
+
+    private Booking toNewBooking(BookingRequestDto bookingDto, Map<Long, Item> items, User booker) {
+        if (bookingDto == null || bookingDto.getItemId() == null) {
+            throw new ValidationException("Не указана вещь для бронирования");
+        }
+        Item item = items.get(bookingDto.getItemId());
+        if (item == null) {
+            log.warn("Вещь с id={} не найдена", bookingDto.getItemId());
+            throw new NotFoundException("Вещь не найдена");
+        }
+        validateBookable(item, booker.getId());
+        validateBookingDates(bookingDto.getStart(), bookingDto.getEnd());
+        return BookingMapper.toBooking(bookingDto, item, booker);
+    }
+
+    private void notifyOwner(Item item, BookingResponseDto booking) {
+        eventPublisher.publishEvent(NotificationEvent.toUser(NotificationType.BOOKING_CREATED,
+                item.getOwner().getId(), booking));
+    }
+
+    private void validateBookable(Item item, Long bookerId) {
+        if (item.getOwner().getId().equals(bookerId)) {
+            log.warn("Бронирование вещи владельцем id={} запрещено", bookerId);
+            throw new ValidationException("Бронирование вещи владельцем запрещено");
+        }
+        if (!item.isAvailable()) {
+            log.warn("Вещь id={} недоступна для бронирования", item.getId());
+            throw new ValidationException("Вещь недоступна для бронирования");
+        }
+    }
+
     private void validateBookingDates(LocalDateTime start, LocalDateTime end) {
         if (start == null || end == null) {
             log.warn("Не указаны даты бронирования: start={} end={}", start, end);
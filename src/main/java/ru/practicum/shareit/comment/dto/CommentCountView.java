@@ -0,0 +1,4 @@
+package ru.practicum.shareit.comment.dto;
+
+public record CommentCountView(Long itemId, Long count) {
+}
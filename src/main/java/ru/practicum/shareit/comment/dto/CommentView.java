@@ -0,0 +1,9 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция комментария с именем автора и идентификатором вещи для группировки.
+ */
+public record CommentView(Long id, Long itemId, String text, String authorName, LocalDateTime created) {
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.comment.mapper;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentView;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -20,6 +21,17 @@ public class CommentMapper {
         return dto;
     }
 
+    public static CommentDto toCommentDto(CommentView view) {
+        if (view == null) {
+            return null;
+        }
+        CommentDto dto = new CommentDto();
+        dto.setId(view.id());
+        dto.setText(view.text());
+        dto.setAuthorName(view.authorName());
+        dto.setCreated(view.created());
+        return dto;
+    }
 
     public static Comment toComment(CommentDto dto, Item item, User author) {
 
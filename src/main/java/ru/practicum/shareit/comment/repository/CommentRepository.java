@@ -1,12 +1,42 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.comment.dto.CommentCountView;
+import ru.practicum.shareit.comment.dto.CommentView;
 import ru.practicum.shareit.comment.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
 
-    List<Comment> findByItemIdInOrderByCreatedDesc(List<Long> itemIds);
+    /**
+     * Не более perItem самых новых комментариев каждой вещи, от новых к старым.
+     */
+    @Query("select new ru.practicum.shareit.comment.dto.CommentView(" +
+            "r.id, r.itemId, r.text, r.authorName, r.created) " +
+            "from (" +
+            " select c.id as id, c.item.id as itemId, c.text as text, a.name as authorName, c.created as created, " +
+            " row_number() over (partition by c.item.id order by c.created desc, c.id desc) as rn " +
+            " from Comment c " +
+            " join c.author a " +
+            " where c.item.id in ?1" +
+            ") r " +
+            "where r.rn <= ?2 " +
+            "order by r.created desc, r.id desc")
+    List<CommentView> findLatestViewsByItemIdIn(List<Long> itemIds, int perItem);
+
+    @Query("select new ru.practicum.shareit.comment.dto.CommentCountView(c.item.id, count(c)) " +
+            "from Comment c " +
+            "where c.item.id in ?1 " +
+            "group by c.item.id")
+    List<CommentCountView> countByItemIdIn(List<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.comment.dto.CommentView(c.id, c.item.id, c.text, a.name, c.created) " +
+            "from Comment c " +
+            "join c.author a " +
+            "where c.item.id = ?1 " +
+            "order by c.created desc, c.id desc")
+    List<CommentView> findViewsByItemId(Long itemId, Pageable pageable);
 }
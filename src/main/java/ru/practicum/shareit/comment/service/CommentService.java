@@ -2,6 +2,10 @@ package ru.practicum.shareit.comment.service;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
 
+import java.util.List;
+
 public interface CommentService {
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
+
+    List<CommentDto> getComments(Long itemId, int from, int size);
 }
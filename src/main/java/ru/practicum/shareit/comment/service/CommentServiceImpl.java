@@ -2,26 +2,40 @@ package ru.practicum.shareit.comment.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.mapper.CommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.OffsetPageRequest;
+import ru.practicum.shareit.common.TransactionHooks;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @AllArgsConstructor
+@Transactional(readOnly = true)
 public class CommentServiceImpl implements CommentService {
     private final EntityFinder entityFinder;
     private final BookingService bookingService;
     private final CommentRepository commentRepository;
+    private final OutboxWriter outboxWriter;
+    private final EntityVersions entityVersions;
 
     @Override
+    @Transactional
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
         User user = entityFinder.getUserOrThrow(userId);
         Item item = entityFinder.getItemOrThrow(itemId);
@@ -31,10 +45,28 @@ public class CommentServiceImpl implements CommentService {
         validateComment(commentDto.getText());
 
         Comment saved = commentRepository.save(CommentMapper.toComment(commentDto, item, user));
+        outboxWriter.record(AggregateType.COMMENT, saved.getId(), OutboxEventType.CREATED);
+        // Комментарии встроены в карточку вещи и в список вещей владельца
+        TransactionHooks.afterCommit(() -> {
+            entityVersions.bump(EntityVersions.Kind.ITEM, itemId);
+            entityVersions.bump(EntityVersions.Kind.OWNER, item.getOwner().getId());
+        });
 
         return CommentMapper.toCommentDto(saved);
     }
 
+    @Override
+    public List<CommentDto> getComments(Long itemId, int from, int size) {
+        entityFinder.getItemOrThrow(itemId);
+        if (from < 0 || size <= 0) {
+            log.warn("Некорректные параметры пагинации: from={} size={}", from, size);
+            throw new ValidationException("Параметры пагинации должны быть: from >= 0, size > 0");
+        }
+        return commentRepository.findViewsByItemId(itemId, OffsetPageRequest.of(from, size, Sort.unsorted())).stream()
+                .map(CommentMapper::toCommentDto)
+                .toList();
+    }
+
     private void validateComment(String text) {
         if (text == null || text.isBlank()) {
             log.warn("Текст комментария не может быть пустым");
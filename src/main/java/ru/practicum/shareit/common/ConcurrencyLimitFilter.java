@@ -0,0 +1,117 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * С виртуальными потоками Tomcat больше не ограничивает число одновременных запросов размером своего пула,
+ * и тысячи запросов выстраиваются в очередь HikariCP, пока не истечёт connectionTimeout.
+ * Фильтр пропускает к обработке не больше запросов, чем соединений в пуле, остальные ждут
+ * acquireTimeout и получают 503. Запрос держит не больше одного соединения основного пула: вложенная транзакция
+ * есть только у EntityFinder, и она берёт соединение основной базы из-под транзакции на реплике.
+ * Выгрузки NDJSON (StreamingResponseBody) пишут тело уже после выхода из фильтра и всё это время держат
+ * соединение, поэтому место освобождается по завершении асинхронного запроса. Поток SSE (/notifications)
+ * соединения не держит и отпускает место сразу.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String NOTIFICATIONS_PATH = "/notifications";
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public ConcurrencyLimitFilter(DataSource dataSource, ConcurrencyLimitProperties properties) throws SQLException {
+        int limit = properties.maxConcurrentRequests() > 0
+                ? properties.maxConcurrentRequests()
+                : dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutNanos = properties.acquireTimeout().toNanos();
+        log.info("Ограничение одновременных запросов: {}", limit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Запрос {} {} отклонён: все соединения с БД заняты", request.getMethod(), request.getRequestURI());
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервер перегружен, повторите запрос позже");
+            return;
+        }
+        boolean releaseOnAsyncEnd = false;
+        try {
+            chain.doFilter(request, response);
+            releaseOnAsyncEnd = request.isAsyncStarted() && !isEventStream(request);
+        } finally {
+            if (releaseOnAsyncEnd) {
+                request.getAsyncContext().addListener(new ReleaseOnAsyncEnd());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    // Заголовки SSE пишутся только с первым событием, поэтому поток узнаётся по адресу, а не по Content-Type
+    private static boolean isEventStream(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(NOTIFICATIONS_PATH);
+    }
+
+    // onError и onTimeout сопровождаются onComplete: место отпускает первое из событий, и только один раз
+    private class ReleaseOnAsyncEnd implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync переносит слушатели в новый контекст, место остаётся занятым
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
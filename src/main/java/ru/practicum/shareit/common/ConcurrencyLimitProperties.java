@@ -0,0 +1,17 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Ограничение числа одновременно обрабатываемых запросов в режиме виртуальных потоков (shareit.concurrency-limit.*).
+ * maxConcurrentRequests = 0 - по размеру пула соединений HikariCP.
+ */
+@ConfigurationProperties("shareit.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("0") int maxConcurrentRequests,
+        @DefaultValue("1s") Duration acquireTimeout
+) {
+}
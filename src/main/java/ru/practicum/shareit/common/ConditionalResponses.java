@@ -0,0 +1,64 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Ответ на GET с ETag из EntityVersions: при совпадении If-None-Match с тегом, который этот экземпляр уже отдавал
+ * с ответом 200, - 304 без вызова сервиса; иначе запрос проходит через сервис со всеми его проверками.
+ * Заголовок сравнивается здесь, а не через WebRequest.checkNotModified: тот выставляет ETag сразу,
+ * и он попал бы и в ответ с ошибкой (например, 404). If-None-Match: * для GET не поддерживается.
+ */
+public final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    public static <T> ResponseEntity<T> of(WebRequest request, EntityVersions versions, String eTag,
+                                           CacheControl cacheControl, Supplier<T> body) {
+        if (isNotModified(request, versions, eTag)) {
+            return notModified(eTag, cacheControl);
+        }
+        T content = body.get();
+        versions.markServed(eTag);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(content);
+    }
+
+    // Для If-None-Match сравнение слабое: W/ у присланного тега не учитывается
+    public static boolean isNotModified(WebRequest request, EntityVersions versions, String eTag) {
+        if (!versions.isServed(eTag)) {
+            return false;
+        }
+        String[] headers = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (headers == null) {
+            return false;
+        }
+        for (String header : headers) {
+            for (String tag : header.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(eTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static <T> ResponseEntity<T> notModified(String eTag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша сущностей в EntityFinder (shareit.cache.*).
+ * negativeTtl - сколько помнить, что сущности с таким id нет.
+ */
+@ConfigurationProperties("shareit.cache")
+public record EntityCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("5s") Duration negativeTtl
+) {
+}
@@ -1,8 +1,17 @@
 package ru.practicum.shareit.common;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -11,16 +20,67 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Поиск сущностей по id с выбросом NotFoundException.
+ * Пользователи и вещи кэшируются (включая отсутствие сущности на короткое время), поэтому
+ * возвращаемые объекты нельзя изменять: для изменения вещи есть getItemForUpdateOrThrow.
+ * Сервисы, меняющие пользователей и вещи, обязаны вызывать evictUser/evictItem.
+ * Промахи кэша при настроенной реплике догружаются из основной базы: иначе чтение сразу после evict
+ * закэшировало бы отставшую копию с реплики или её отсутствие.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class EntityFinder {
-    private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
+    private final LoadingCache<Long, Optional<User>> users;
+    private final LoadingCache<Long, Optional<Item>> items;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean replicaConfigured;
+
+    public EntityFinder(UserRepository userRepository,
+                        ItemRepository itemRepository,
+                        BookingRepository bookingRepository,
+                        EntityCacheProperties properties,
+                        ReplicaDataSourceProperties replicaProperties,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicaConfigured = replicaProperties.url() != null;
+        this.users = buildCache(properties, userId -> loadFromPrimary(() -> userRepository.findById(userId)));
+        this.items = buildCache(properties, new CacheLoader<>() {
+            @Override
+            public Optional<Item> load(Long itemId) {
+                return loadFromPrimary(() -> itemRepository.findById(itemId));
+            }
+
+            // getItems догружает все промахи кэша одним запросом
+            @Override
+            public Map<Long, Optional<Item>> loadAll(Set<? extends Long> itemIds) {
+                Map<Long, Optional<Item>> loaded = new HashMap<>();
+                itemIds.forEach(itemId -> loaded.put(itemId, Optional.empty()));
+                loadFromPrimary(() -> itemRepository.findAllById(List.copyOf(itemIds)))
+                        .forEach(item -> loaded.put(item.getId(), Optional.of(item)));
+                return loaded;
+            }
+        });
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, items, "items");
+    }
 
     public User getUserOrThrow(Long id) {
-        return userRepository.findById(id)
+        return users.get(id)
                 .orElseThrow(() -> {
                     log.warn("Пользователь с id={} не найден", id);
                     return new NotFoundException("Пользователя с таким id не существует");
@@ -28,18 +88,82 @@ public class EntityFinder {
     }
 
     public Item getItemOrThrow(Long itemId) {
+        return items.get(itemId)
+                .orElseThrow(() -> itemNotFound(itemId));
+    }
+
+    /**
+     * Вещи по списку id; ненайденных id в результате нет.
+     */
+    public Map<Long, Item> getItems(Collection<Long> itemIds) {
+        Map<Long, Item> found = new HashMap<>();
+        items.getAll(itemIds).forEach((itemId, item) -> item.ifPresent(value -> found.put(itemId, value)));
+        return found;
+    }
+
+    /**
+     * Вещь из базы в обход кэша: её можно менять и сохранять, после чего вызвать evictItem.
+     */
+    public Item getItemForUpdateOrThrow(Long itemId) {
         return itemRepository.findById(itemId)
-                .orElseThrow(() -> {
-                    log.warn("Вещь с id={} не найдена", itemId);
-                    return new NotFoundException("Вещь не найдена");
-                });
+                .orElseThrow(() -> itemNotFound(itemId));
     }
 
     public Booking getBookingOrThrow(Long bookingId) {
-        return bookingRepository.findById(bookingId)
+        return bookingRepository.findWithItemById(bookingId)
                 .orElseThrow(() -> {
                     log.warn("Бронирование с id={} не найдено", bookingId);
                     return new NotFoundException("Бронирование с таким id не найдено");
                 });
     }
+
+    public void evictUser(Long id) {
+        users.invalidate(id);
+    }
+
+    public void evictItem(Long itemId) {
+        items.invalidate(itemId);
+    }
+
+    // Транзакция только для чтения идёт на реплику - для загрузки в кэш открывается отдельная на основной базе.
+    // Соединения берутся из разных пулов, поэтому вложенная транзакция не ждёт пул, занятый внешней
+    private <T> T loadFromPrimary(Supplier<T> loader) {
+        if (!replicaConfigured || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        return primaryTransaction.execute(status -> loader.get());
+    }
+
+    private NotFoundException itemNotFound(Long itemId) {
+        log.warn("Вещь с id={} не найдена", itemId);
+        return new NotFoundException("Вещь не найдена");
+    }
+
+    private static <T> LoadingCache<Long, Optional<T>> buildCache(EntityCacheProperties properties,
+                                                                  CacheLoader<Long, Optional<T>> loader) {
+        long ttl = properties.ttl().toNanos();
+        long negativeTtl = properties.negativeTtl().toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new Expiry<Long, Optional<T>>() {
+                    @Override
+                    public long expireAfterCreate(Long key, Optional<T> value, long currentTime) {
+                        return value.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, Optional<T> value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, Optional<T> value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(loader);
+    }
 }
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики версий ответов для ETag: сервисы увеличивают версию после фиксации изменения, контроллер сравнивает
+ * If-None-Match с текущей версией до обращения к базе. Версии берутся из одного растущего счётчика;
+ * для id, которых нет в памяти (ещё не менялись или вытеснены), действует нижняя граница, которая поднимается
+ * при вытеснении, - поэтому версия сущности никогда не возвращается к значению, уже выданному в ETag.
+ * Счётчики живут в памяти одного экземпляра, как и поисковый индекс; префикс запуска сбрасывает ETag после рестарта.
+ * Смена последнего/следующего бронирования со временем учитывается, когда BookingFrontierService пересчитывает
+ * строку: до этого 304 может отставать не дольше shareit.frontier.refresh-interval.
+ */
+@Component
+public class EntityVersions {
+    public enum Kind {
+        // Карточка вещи: поля, комментарии, последнее/следующее бронирования
+        ITEM,
+        // Список вещей владельца
+        OWNER,
+        BOOKING
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Kind, Versions> versions = new EnumMap<>(Kind.class);
+    private final Cache<String, Boolean> served;
+
+    public EntityVersions(HttpCacheProperties properties) {
+        for (Kind kind : Kind.values()) {
+            versions.put(kind, new Versions(properties.maxVersions()));
+        }
+        served = Caffeine.newBuilder()
+                .maximumSize(properties.maxVersions())
+                .build();
+    }
+
+    /**
+     * Сильный ETag текущей версии; qualifier - то, от чего ещё зависит ответ (например, кто его запрашивает).
+     */
+    public String eTag(Kind kind, Long id, Object qualifier) {
+        return "\"" + epoch + "-" + kind.name().charAt(0) + versions.get(kind).get(id) + "-" + qualifier + "\"";
+    }
+
+    /**
+     * Запоминает ETag, отданный с ответом 200. Без обращения к сервису 304 возвращается только для таких тегов:
+     * подобранный тег иначе обходил бы 404 и проверку доступа.
+     */
+    public void markServed(String eTag) {
+        served.put(eTag, Boolean.TRUE);
+    }
+
+    public boolean isServed(String eTag) {
+        return served.getIfPresent(eTag) != null;
+    }
+
+    public void bump(Kind kind, Long id) {
+        versions.get(kind).set(id, clock.incrementAndGet());
+    }
+
+    public void bumpAll(Kind kind, Collection<Long> ids) {
+        long version = clock.incrementAndGet();
+        ids.forEach(id -> versions.get(kind).set(id, version));
+    }
+
+    /**
+     * Меняет версии всех сущностей вида - для изменений, которые видны во многих ответах (переименование).
+     */
+    public void invalidate(Kind kind) {
+        versions.get(kind).reset(clock.incrementAndGet());
+    }
+
+    private static final class Versions {
+        private final AtomicLong floor = new AtomicLong();
+        private final Cache<Long, Long> byId;
+
+        Versions(long maximumSize) {
+            // evictionListener, в отличие от removalListener, вызывается синхронно при вытеснении
+            byId = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .<Long, Long>evictionListener((id, version, cause) -> raiseFloor(version))
+                    .build();
+        }
+
+        long get(Long id) {
+            Long version = byId.getIfPresent(id);
+            return version != null ? version : floor.get();
+        }
+
+        void set(Long id, long version) {
+            byId.asMap().merge(id, version, Math::max);
+        }
+
+        void reset(long version) {
+            raiseFloor(version);
+            byId.invalidateAll();
+        }
+
+        private void raiseFloor(Long version) {
+            if (version != null) {
+                floor.accumulateAndGet(version, Math::max);
+            }
+        }
+    }
+}
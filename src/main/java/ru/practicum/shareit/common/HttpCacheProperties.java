@@ -0,0 +1,37 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+/**
+ * Условные GET (shareit.http-cache.*): сколько id каждого вида и отданных ETag помнит EntityVersions
+ * и max-age по эндпоинтам.
+ * Ответы зависят от пользователя, поэтому всегда private; max-age = 0 - клиент переспрашивает каждый раз (no-cache).
+ */
+@ConfigurationProperties("shareit.http-cache")
+public record HttpCacheProperties(
+        @DefaultValue("100000") long maxVersions,
+        @DefaultValue("0s") Duration itemMaxAge,
+        @DefaultValue("0s") Duration itemsMaxAge,
+        @DefaultValue("0s") Duration bookingMaxAge
+) {
+
+    public CacheControl item() {
+        return policy(itemMaxAge);
+    }
+
+    public CacheControl items() {
+        return policy(itemsMaxAge);
+    }
+
+    public CacheControl booking() {
+        return policy(bookingMaxAge);
+    }
+
+    private static CacheControl policy(Duration maxAge) {
+        return maxAge.isZero() ? CacheControl.noCache().cachePrivate() : CacheControl.maxAge(maxAge).cachePrivate();
+    }
+}
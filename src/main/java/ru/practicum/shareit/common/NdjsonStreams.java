@@ -0,0 +1,77 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Потоковая выдача в формате NDJSON (по JSON-объекту на строку): порциями по курсору
+ * или из источника, который сам передаёт элементы по одному. В памяти не накапливается весь список.
+ */
+public final class NdjsonStreams {
+
+    private NdjsonStreams() {
+    }
+
+    /**
+     * @param firstChunk  первая порция; загружается до начала ответа, чтобы ошибки доступа вернулись обычным статусом
+     * @param chunkLoader загружает порцию после переданного курсора
+     * @param cursorOf    курсор, указывающий на элемент
+     */
+    public static <T, C> StreamingResponseBody chunked(ObjectMapper objectMapper,
+                                                       int chunkSize,
+                                                       List<T> firstChunk,
+                                                       Function<C, List<T>> chunkLoader,
+                                                       Function<T, C> cursorOf) {
+        return out -> {
+            ObjectWriter writer = objectMapper.writer();
+            List<T> chunk = firstChunk;
+            while (true) {
+                for (T element : chunk) {
+                    out.write(writer.writeValueAsBytes(element));
+                    out.write('\n');
+                }
+                out.flush();
+                if (chunk.size() < chunkSize) {
+                    return;
+                }
+                chunk = chunkLoader.apply(cursorOf.apply(chunk.get(chunk.size() - 1)));
+            }
+        };
+    }
+
+    /**
+     * @param source     передаёт элементы в полученный обработчик, например читая курсор базы внутри транзакции
+     * @param flushEvery через сколько элементов отправлять накопленное клиенту
+     */
+    public static <T> StreamingResponseBody fromSource(ObjectMapper objectMapper,
+                                                       int flushEvery,
+                                                       Consumer<Consumer<T>> source) {
+        return out -> {
+            ObjectWriter writer = objectMapper.writer();
+            int[] written = {0};
+            try {
+                source.accept(element -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(element));
+                        out.write('\n');
+                        if (++written[0] % flushEvery == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+    }
+}
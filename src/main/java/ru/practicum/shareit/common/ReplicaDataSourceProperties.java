@@ -0,0 +1,16 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Реплика для транзакций только для чтения (shareit.datasource.replica.*).
+ * Без url все запросы идут в spring.datasource; логин и пароль по умолчанию - как у основной базы.
+ * Настройки пула реплики - shareit.datasource.replica.hikari.*.
+ */
+@ConfigurationProperties("shareit.datasource.replica")
+public record ReplicaDataSourceProperties(
+        String url,
+        String username,
+        String password
+) {
+}
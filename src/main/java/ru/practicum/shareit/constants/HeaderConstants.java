@@ -2,6 +2,7 @@ package ru.practicum.shareit.constants;
 
 public class HeaderConstants {
     public static final String USER_ID = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
 
     private HeaderConstants() {
     }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.importing;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.importing.dto.ImportJobDto;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportType;
+import ru.practicum.shareit.importing.service.ImportService;
+
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/imports")
+@AllArgsConstructor
+public class ImportController {
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ImportService importService;
+
+    // Тело - файл целиком: CSV с заголовком name,email или NDJSON; ответ сразу, ход импорта - GET /imports/{jobId}
+    @PostMapping(path = "/users", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportJobDto> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream content) {
+        return accepted(importService.submit(ImportType.USERS, toFormat(contentType), null, content));
+    }
+
+    // Вещи пользователя из заголовка: CSV с заголовком name,description,available или NDJSON
+    @PostMapping(path = "/items", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportJobDto> importItems(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream content) {
+        return accepted(importService.submit(ImportType.ITEMS, toFormat(contentType), userId, content));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobDto> getJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(importService.getJob(jobId));
+    }
+
+    private ResponseEntity<ImportJobDto> accepted(ImportJobDto job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/imports/" + job.getId()))
+                .body(job);
+    }
+
+    private ImportFormat toFormat(String contentType) {
+        return MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? ImportFormat.CSV
+                : ImportFormat.NDJSON;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.importing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки импорта (shareit.import.*): размер пачки на одну транзакцию, число обработчиков,
+ * очередь ожидающих задач (при переполнении - 503), число хранимых ошибок и срок хранения завершённых задач.
+ */
+@ConfigurationProperties("shareit.import")
+public record ImportProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("1") int workers,
+        @DefaultValue("4") int maxQueuedJobs,
+        @DefaultValue("100") int maxErrors,
+        @DefaultValue("1h") Duration retention
+) {
+}
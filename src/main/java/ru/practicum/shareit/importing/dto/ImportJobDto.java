@@ -0,0 +1,28 @@
+package ru.practicum.shareit.importing.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportStatus;
+import ru.practicum.shareit.importing.enums.ImportType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Состояние задачи импорта. В errors - только первые shareit.import.max-errors ошибок,
+ * общее число отклонённых строк - rejected.
+ */
+@Data
+public class ImportJobDto {
+    private Long id;
+    private ImportType type;
+    private ImportFormat format;
+    private ImportStatus status;
+    private long processed;
+    private long imported;
+    private long rejected;
+    private List<ImportErrorDto> errors;
+    private String failure;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.importing.enums;
+
+public enum ImportFormat {
+    // Первая строка - заголовок с именами полей, значения через запятую, кавычки по RFC 4180 в пределах строки
+    CSV,
+    // Один JSON-объект на строку
+    NDJSON
+}
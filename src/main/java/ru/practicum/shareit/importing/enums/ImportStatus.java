@@ -0,0 +1,11 @@
+package ru.practicum.shareit.importing.enums;
+
+public enum ImportStatus {
+    // Файл сохранён, задача ждёт свободного обработчика
+    QUEUED,
+    RUNNING,
+    // Файл прочитан до конца; отклонённые строки перечислены в ошибках задачи
+    COMPLETED,
+    // Обработка прервана: файл не читается или база недоступна
+    FAILED
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.importing.enums;
+
+public enum ImportType {
+    USERS,
+    // Вещи одного владельца - пользователя из заголовка запроса
+    ITEMS
+}
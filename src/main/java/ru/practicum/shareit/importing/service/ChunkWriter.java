@@ -0,0 +1,67 @@
+package ru.practicum.shareit.importing.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.importing.service.RowImporter.ImportRow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Запись пачки одним saveAll в одной транзакции вместе с inTransaction (например, событиями outbox).
+ * Если пачка нарушает ограничение базы (например, email вставили параллельно),
+ * транзакция откатывается и строки пишутся по одной, каждая в своей транзакции, чтобы отклонить только виноватые.
+ * Возвращает сохранённые сущности, когда их транзакции уже зафиксированы.
+ */
+@Slf4j
+final class ChunkWriter {
+
+    private ChunkWriter() {
+    }
+
+    static <T> List<T> saveAll(TransactionTemplate transaction,
+                               JpaRepository<T, Long> repository,
+                               List<ImportRow<T>> rows,
+                               ImportJob job,
+                               BiConsumer<T, Long> idSetter,
+                               Consumer<List<T>> inTransaction,
+                               String conflictMessage) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<T> entities = rows.stream().map(ImportRow::entity).toList();
+        try {
+            List<T> saved = transaction.execute(status -> {
+                // flush внутри транзакции: нарушение ограничения приходит отсюда, а не из commit
+                List<T> written = repository.saveAllAndFlush(entities);
+                inTransaction.accept(written);
+                return written;
+            });
+            job.imported(saved.size());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пачка импорта id={} не записана целиком, строки пишутся по одной: {}",
+                    job.id(), e.getMostSpecificCause().getMessage());
+        }
+        List<T> saved = new ArrayList<>(rows.size());
+        for (ImportRow<T> row : rows) {
+            // id был выдан в откатившейся транзакции
+            idSetter.accept(row.entity(), null);
+            try {
+                saved.add(transaction.execute(status -> {
+                    T written = repository.saveAndFlush(row.entity());
+                    inTransaction.accept(List.of(written));
+                    return written;
+                }));
+                job.imported(1);
+            } catch (DataIntegrityViolationException e) {
+                job.reject(row.line(), conflictMessage);
+            }
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.importing.service;
+
+import ru.practicum.shareit.importing.dto.ImportErrorDto;
+import ru.practicum.shareit.importing.dto.ImportJobDto;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportStatus;
+import ru.practicum.shareit.importing.enums.ImportType;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Задача импорта: пишет её единственный обработчик, читают запросы статуса.
+ * Ошибок хранится не больше maxErrors, остальные только считаются.
+ */
+class ImportJob {
+    private final Long id;
+    private final ImportType type;
+    private final ImportFormat format;
+    private final Long ownerId;
+    private final Path file;
+    private final int maxErrors;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final List<ImportErrorDto> errors = new ArrayList<>();
+    private volatile ImportStatus status = ImportStatus.QUEUED;
+    private volatile long processed;
+    private volatile long imported;
+    private volatile long rejected;
+    private volatile String failure;
+    private volatile LocalDateTime finishedAt;
+
+    ImportJob(Long id, ImportType type, ImportFormat format, Long ownerId, Path file, int maxErrors) {
+        this.id = id;
+        this.type = type;
+        this.format = format;
+        this.ownerId = ownerId;
+        this.file = file;
+        this.maxErrors = maxErrors;
+    }
+
+    Long id() {
+        return id;
+    }
+
+    ImportType type() {
+        return type;
+    }
+
+    ImportFormat format() {
+        return format;
+    }
+
+    Long ownerId() {
+        return ownerId;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    void start() {
+        status = ImportStatus.RUNNING;
+    }
+
+    void processed() {
+        processed++;
+    }
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    synchronized void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportErrorDto(line, message));
+        }
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        status = ImportStatus.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = LocalDateTime.now();
+        status = ImportStatus.FAILED;
+    }
+
+    synchronized ImportJobDto toDto() {
+        ImportJobDto dto = new ImportJobDto();
+        dto.setId(id);
+        dto.setType(type);
+        dto.setFormat(format);
+        dto.setStatus(status);
+        dto.setProcessed(processed);
+        dto.setImported(imported);
+        dto.setRejected(rejected);
+        dto.setErrors(List.copyOf(errors));
+        dto.setFailure(failure);
+        dto.setCreatedAt(createdAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+}
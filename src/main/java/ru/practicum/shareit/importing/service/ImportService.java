@@ -0,0 +1,14 @@
+package ru.practicum.shareit.importing.service;
+
+import ru.practicum.shareit.importing.dto.ImportJobDto;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportType;
+
+import java.io.InputStream;
+
+public interface ImportService {
+
+    ImportJobDto submit(ImportType type, ImportFormat format, Long ownerId, InputStream content);
+
+    ImportJobDto getJob(Long jobId);
+}
@@ -0,0 +1,246 @@
+package ru.practicum.shareit.importing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.importing.ImportProperties;
+import ru.practicum.shareit.importing.dto.ImportJobDto;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportType;
+import ru.practicum.shareit.importing.exception.ImportQueueFullException;
+import ru.practicum.shareit.importing.service.RowImporter.ImportRow;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.user.index.EmailIndex;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Импорт файла в фоне. Тело запроса сначала целиком сохраняется во временный файл, чтобы не держать соединение
+ * и не читать файл в память; затем обработчик читает его построчно и пишет пачками по chunkSize строк.
+ * Следующая пачка читается только после записи предыдущей, а ожидающих задач не больше maxQueuedJobs -
+ * так скорость чтения ограничена скоростью записи в базу.
+ */
+@Slf4j
+@Service
+public class ImportServiceImpl implements ImportService {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transaction;
+    private final EntityFinder entityFinder;
+    private final EntityVersions entityVersions;
+    private final EmailIndex emailIndex;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextJobId = new AtomicLong();
+
+    public ImportServiceImpl(UserRepository userRepository,
+                             ItemRepository itemRepository,
+                             OutboxWriter outboxWriter,
+                             PlatformTransactionManager transactionManager,
+                             EntityFinder entityFinder,
+                             EntityVersions entityVersions,
+                             EmailIndex emailIndex,
+                             ObjectMapper objectMapper,
+                             ImportProperties properties) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.outboxWriter = outboxWriter;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.entityFinder = entityFinder;
+        this.entityVersions = entityVersions;
+        this.emailIndex = emailIndex;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(properties.workers(), properties.workers(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.maxQueuedJobs()),
+                Thread.ofPlatform().name("import-", 1).factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ImportJobDto submit(ImportType type, ImportFormat format, Long ownerId, InputStream content) {
+        if (type == ImportType.ITEMS) {
+            entityFinder.getUserOrThrow(ownerId);
+        }
+        purgeFinished();
+        // Не принимаем файл, который всё равно некуда поставить
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw queueFull();
+        }
+        ImportJob job = new ImportJob(nextJobId.incrementAndGet(), type, format, ownerId, spool(content),
+                properties.maxErrors());
+        jobs.put(job.id(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            deleteQuietly(job.file());
+            throw queueFull();
+        }
+        log.info("Задача импорта id={} поставлена в очередь: {} в формате {}", job.id(), type, format);
+        return job.toDto();
+    }
+
+    @Override
+    public ImportJobDto getJob(Long jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            log.warn("Задача импорта id={} не найдена", jobId);
+            throw new NotFoundException("Задача импорта не найдена");
+        }
+        return job.toDto();
+    }
+
+    private void run(ImportJob job) {
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(job.file(), StandardCharsets.UTF_8)) {
+            if (job.type() == ImportType.USERS) {
+                process(job, reader, new UserRowImporter(transaction, userRepository, outboxWriter, entityFinder,
+                        emailIndex));
+            } else {
+                process(job, reader, new ItemRowImporter(transaction, itemRepository, outboxWriter, entityFinder,
+                        entityVersions, entityFinder.getUserOrThrow(job.ownerId())));
+            }
+            job.complete();
+            log.info("Задача импорта id={} завершена", job.id());
+        } catch (IOException | RuntimeException e) {
+            log.error("Задача импорта id={} прервана", job.id(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(job.file());
+        }
+    }
+
+    private <D, T> void process(ImportJob job, BufferedReader reader, RowImporter<D, T> importer) throws IOException {
+        long lineNumber = 0;
+        List<String> header = null;
+        if (job.format() == ImportFormat.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return;
+            }
+            lineNumber++;
+            header = CsvLineParser.parse(headerLine).stream().map(String::trim).toList();
+        }
+        List<ImportRow<T>> chunk = new ArrayList<>(properties.chunkSize());
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            job.processed();
+            try {
+                chunk.add(new ImportRow<>(lineNumber, importer.toEntity(parse(line, header, importer.rowType()))));
+            } catch (ValidationException e) {
+                job.reject(lineNumber, e.getMessage());
+            }
+            if (chunk.size() == properties.chunkSize()) {
+                importer.save(chunk, job);
+                chunk = new ArrayList<>(properties.chunkSize());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importer.save(chunk, job);
+        }
+    }
+
+    private <D> D parse(String line, List<String> header, Class<D> rowType) {
+        try {
+            ObjectNode row;
+            if (header == null) {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) {
+                    throw new ValidationException("Строка должна быть JSON-объектом");
+                }
+                row = (ObjectNode) node;
+            } else {
+                List<String> values = CsvLineParser.parse(line);
+                if (values.size() != header.size()) {
+                    throw new ValidationException("Ожидалось полей: " + header.size() + ", в строке: " + values.size());
+                }
+                row = objectMapper.createObjectNode();
+                for (int i = 0; i < header.size(); i++) {
+                    String value = values.get(i);
+                    if (value.isEmpty()) {
+                        row.putNull(header.get(i));
+                    } else {
+                        row.put(header.get(i), value);
+                    }
+                }
+            }
+            return objectMapper.treeToValue(row, rowType);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректная строка: " + e.getOriginalMessage());
+        }
+    }
+
+    private Path spool(InputStream content) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("shareit-import-", ".tmp");
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Не удалось сохранить файл импорта", e);
+        }
+    }
+
+    private void purgeFinished() {
+        LocalDateTime expired = LocalDateTime.now().minus(properties.retention());
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(expired));
+    }
+
+    private ImportQueueFullException queueFull() {
+        log.warn("Очередь импорта заполнена: {} задач ожидают", executor.getQueue().size());
+        return new ImportQueueFullException("Очередь импорта заполнена, повторите позже");
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл импорта {}", file, e);
+        }
+    }
+}
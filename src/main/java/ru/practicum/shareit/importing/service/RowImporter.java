@@ -0,0 +1,25 @@
+package ru.practicum.shareit.importing.service;
+
+import java.util.List;
+
+/**
+ * Импорт строк одного типа: проверка строки без обращения к базе и запись пачки одной транзакцией.
+ * D - DTO, в который разбирается строка файла, T - сохраняемая сущность.
+ */
+interface RowImporter<D, T> {
+
+    Class<D> rowType();
+
+    /**
+     * ValidationException, если строка некорректна.
+     */
+    T toEntity(D row);
+
+    /**
+     * Сохраняет пачку; принятые и отклонённые строки отмечает в задаче.
+     */
+    void save(List<ImportRow<T>> chunk, ImportJob job);
+
+    record ImportRow<T>(long line, T entity) {
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.importing.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.index.EmailIndex;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.validation.EmailValidator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пользователи: формат email проверяется теми же правилами, что и в UserServiceImpl, события outbox - те же.
+ * Повтор внутри файла отсекается по множеству уже встреченных адресов, занятые в базе - одним запросом
+ * на пачку вместо existsByEmail на каждую строку, причём в запрос идут только адреса, не исключённые EmailIndex.
+ */
+class UserRowImporter implements RowImporter<UserDto, User> {
+    private static final String EMAIL_EXISTS = "Пользователь с таким email уже существует";
+
+    private final TransactionTemplate transaction;
+    private final UserRepository userRepository;
+    private final OutboxWriter outboxWriter;
+    private final EntityFinder entityFinder;
+    private final EmailIndex emailIndex;
+    private final Set<String> seenEmails = new HashSet<>();
+
+    UserRowImporter(TransactionTemplate transaction, UserRepository userRepository, OutboxWriter outboxWriter,
+                    EntityFinder entityFinder, EmailIndex emailIndex) {
+        this.transaction = transaction;
+        this.userRepository = userRepository;
+        this.outboxWriter = outboxWriter;
+        this.entityFinder = entityFinder;
+        this.emailIndex = emailIndex;
+    }
+
+    @Override
+    public Class<UserDto> rowType() {
+        return UserDto.class;
+    }
+
+    @Override
+    public User toEntity(UserDto row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new ValidationException("Имя пользователя не может быть пустым");
+        }
+        EmailValidator.validateFormat(row.getEmail());
+        if (!seenEmails.add(row.getEmail())) {
+            throw new ValidationException("Email уже встречался в файле");
+        }
+        User user = UserMapper.toUser(row);
+        user.setId(null);
+        return user;
+    }
+
+    @Override
+    public void save(List<ImportRow<User>> chunk, ImportJob job) {
+        List<String> possiblyTaken = chunk.stream()
+                .map(row -> row.entity().getEmail())
+                .filter(emailIndex::mightContain)
+                .toList();
+        Set<String> existing = possiblyTaken.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findEmailsIn(possiblyTaken));
+        List<ImportRow<User>> fresh = new ArrayList<>(chunk.size());
+        for (ImportRow<User> row : chunk) {
+            if (existing.contains(row.entity().getEmail())) {
+                job.reject(row.line(), EMAIL_EXISTS);
+            } else {
+                fresh.add(row);
+            }
+        }
+        List<User> saved = ChunkWriter.saveAll(transaction, userRepository, fresh, job, User::setId,
+                users -> outboxWriter.recordAll(AggregateType.USER, users.stream().map(User::getId).toList(),
+                        OutboxEventType.CREATED),
+                EMAIL_EXISTS);
+        for (User user : saved) {
+            // Мог быть закэширован ответ «не найден» для этого id
+            entityFinder.evictUser(user.getId());
+            emailIndex.add(user.getEmail());
+        }
+    }
+}
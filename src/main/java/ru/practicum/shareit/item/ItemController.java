@@ -1,24 +1,45 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.service.CommentService;
+import ru.practicum.shareit.common.ConditionalResponses;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.HttpCacheProperties;
+import ru.practicum.shareit.common.NdjsonStreams;
 import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.enums.SearchMode;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/items")
 @AllArgsConstructor
 public class ItemController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final ItemService itemService;
     private final CommentService commentService;
+    private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final EntityVersions entityVersions;
+    private final HttpCacheProperties httpCache;
 
     @PostMapping
     public ResponseEntity<ItemDto> createItem(
@@ -40,21 +61,84 @@ public class ItemController {
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemWithBookingsDto> getItem(
             @RequestHeader(HeaderConstants.USER_ID) Long userId,
-            @PathVariable Long itemId) {
-        return ResponseEntity.ok().body(itemService.getItem(userId, itemId));
+            @PathVariable Long itemId,
+            WebRequest request) {
+        // Владелец видит бронирования, остальные - нет: ETag свой для каждого пользователя
+        return ConditionalResponses.of(request, entityVersions,
+                entityVersions.eTag(EntityVersions.Kind.ITEM, itemId, userId),
+                httpCache.item(), () -> itemService.getItem(userId, itemId));
     }
 
 
+    // Страница по возрастанию id, без size - DEFAULT_PAGE_SIZE вещей; весь список - потоком application/x-ndjson
     @GetMapping
-    public ResponseEntity<List<ItemWithBookingsDto>> getItemsByOwner(@RequestHeader(HeaderConstants.USER_ID) Long userId) {
-        return ResponseEntity.ok().body(itemService.getItemsByOwner(userId));
+    public ResponseEntity<List<ItemWithBookingsDto>> getItemsByOwner(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "size", required = false) Integer size,
+            WebRequest request) {
+        // Версия общая для всех страниц списка: клиент хранит ETag отдельно для каждого URL
+        String eTag = entityVersions.eTag(EntityVersions.Kind.OWNER, userId, userId);
+        if (ConditionalResponses.isNotModified(request, entityVersions, eTag)) {
+            return ConditionalResponses.notModified(eTag, httpCache.items());
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        List<ItemWithBookingsDto> items = itemService.getItemsByOwnerAfter(userId, after, pageSize);
+        entityVersions.markServed(eTag);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(httpCache.items());
+        if (items.size() < pageSize) {
+            return response.body(items);
+        }
+        return response
+                .header(HeaderConstants.NEXT_CURSOR, String.valueOf(items.get(items.size() - 1).getId()))
+                .body(items);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItemsByOwner(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId) {
+        List<ItemWithBookingsDto> firstChunk = itemService.getItemsByOwnerAfter(userId, null, STREAM_CHUNK_SIZE);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonStreams.chunked(objectMapper, STREAM_CHUNK_SIZE, firstChunk,
+                        afterId -> itemService.getItemsByOwnerAfter(userId, afterId, STREAM_CHUNK_SIZE),
+                        ItemWithBookingsDto::getId));
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<ItemDto>> searchItems(
             @RequestHeader(HeaderConstants.USER_ID) Long userId,
-            @RequestParam("text") String text) {
-        return ResponseEntity.ok().body(itemService.searchItems(text));
+            @RequestParam("text") String text,
+            @RequestParam(name = "mode", defaultValue = "SUBSTRING") String mode,
+            @RequestParam(name = "from", required = false) Integer from,
+            @RequestParam(name = "size", required = false) Integer size) {
+        // По умолчанию - прежний контракт: подстрока без учёта регистра, все найденные вещи.
+        // Ранжированный поиск по словам - mode=ranked, страница - from/size
+        if (from == null && size == null) {
+            return ResponseEntity.ok().body(itemService.searchItems(text, parseMode(mode)));
+        }
+        return ResponseEntity.ok().body(itemService.searchItems(text, parseMode(mode),
+                from == null ? 0 : from, size == null ? DEFAULT_PAGE_SIZE : size));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> getAvailability(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok().body(bookingService.getAvailability(userId, itemId, from, to));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(name = "from", defaultValue = "0") int from,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok().body(commentService.getComments(itemId, from, size));
     }
 
     @PostMapping("/{itemId}/comment")
@@ -66,4 +150,11 @@ public class ItemController {
                 .body(commentService.addComment(userId, itemId, commentDto));
     }
 
+    private SearchMode parseMode(String mode) {
+        try {
+            return SearchMode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown search mode: " + mode);
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Проекция вещи без загрузки владельца и запроса: от них нужны только идентификаторы.
+ */
+public record ItemView(
+        Long id,
+        String name,
+        String description,
+        boolean available,
+        Long ownerId,
+        Long requestId
+) {
+}
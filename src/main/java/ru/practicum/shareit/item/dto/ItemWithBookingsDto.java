@@ -19,5 +19,7 @@ public class ItemWithBookingsDto {
     private Long requestId;
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
+    // Только самые новые комментарии, остальные - через GET /items/{itemId}/comments
     private List<CommentDto> comments;
+    private Long commentsCount;
 }
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.enums;
+
+public enum SearchMode {
+    // Поиск по словам с ранжированием по релевантности
+    RANKED,
+    // Поиск подстроки в названии или описании, результаты по возрастанию id
+    SUBSTRING
+}
@@ -1,10 +1,11 @@
 package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.comment.mapper.CommentMapper;
-import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -39,35 +40,32 @@ public class ItemMapper {
     }
 
     public static ItemWithBookingsDto toItemWithBookingsDto(
-            Item item,
-            Booking lastBooking,
-            Booking nextBooking,
-            List<Comment> comments
+            ItemView item,
+            BookingShortView lastBooking,
+            BookingShortView nextBooking,
+            List<CommentView> comments,
+            long commentsCount
     ) {
         if (item == null) {
             return null;
         }
 
         ItemWithBookingsDto dto = new ItemWithBookingsDto();
-        dto.setId(item.getId());
-        dto.setName(item.getName());
-        dto.setDescription(item.getDescription());
-        dto.setAvailable(item.isAvailable());
-        dto.setRequestId(item.getRequest() != null ? item.getRequest().getId() : null);
+        dto.setId(item.id());
+        dto.setName(item.name());
+        dto.setDescription(item.description());
+        dto.setAvailable(item.available());
+        dto.setRequestId(item.requestId());
 
-        dto.setLastBooking(lastBooking != null
-                ? BookingMapper.toBookingShortDto(lastBooking)
-                : null);
-
-        dto.setNextBooking(nextBooking != null
-                ? BookingMapper.toBookingShortDto(nextBooking)
-                : null);
+        dto.setLastBooking(BookingMapper.toBookingShortDto(lastBooking));
+        dto.setNextBooking(BookingMapper.toBookingShortDto(nextBooking));
 
         dto.setComments(comments == null
                 ? List.of()
                 : comments.stream()
                 .map(CommentMapper::toCommentDto)
                 .toList());
+        dto.setCommentsCount(commentsCount);
 
         return dto;
     }
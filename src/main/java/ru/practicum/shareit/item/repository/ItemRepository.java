@@ -1,19 +1,81 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemAnswerView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    List<Item> findAllByOwnerId(Long ownerId);
+    /**
+     * Блокирует строку вещи до конца транзакции (select ... for update): подтверждения бронирований
+     * одной вещи выполняются по очереди.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i.id from Item i where i.id = ?1")
+    Optional<Long> lockById(Long itemId);
 
-    @Query(" select i from Item i " +
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(" +
+            "i.id, i.name, i.description, i.available, i.owner.id, i.request.id) " +
+            "from Item i " +
+            "where i.id = ?1")
+    Optional<ItemView> findViewById(Long itemId);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemAnswerView(i.id, i.name, i.owner.id, i.request.id) " +
+            "from Item i " +
+            "where i.request.id in ?1")
+    List<ItemAnswerView> findAnswersByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(" +
+            "i.id, i.name, i.description, i.available, i.owner.id, i.request.id) " +
+            "from Item i " +
+            "where i.owner.id = ?1 and i.id > ?2 " +
+            "order by i.id")
+    List<ItemView> findViewsByOwnerIdAfter(Long ownerId, Long afterId, Limit limit);
+
+    /**
+     * Переносимый поиск подстроки. Спецсимволы LIKE в pattern должны быть экранированы обратной косой чертой.
+     */
+    @Query(" select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
             "where i.available = true and (" +
-            " upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%'))" +
-            ")")
-    List<Item> searchAvailableByText(String text);
+            " upper(i.name) like upper(concat('%', ?1, '%')) escape '\\' " +
+            " or upper(i.description) like upper(concat('%', ?1, '%')) escape '\\'" +
+            ") " +
+            "order by i.id")
+    List<ItemDto> searchAvailableByText(String pattern, Pageable pageable);
+
+    /**
+     * Поиск подстроки для Postgres: выражение и условие совпадают с индексом idx_items_available_text_trgm.
+     */
+    @Query(value = "select i.id from items i " +
+            "where i.is_available " +
+            "and lower(i.name || ' ' || i.description) like '%' || lower(?1) || '%' " +
+            "order by i.id " +
+            "limit ?2 offset ?3", nativeQuery = true)
+    List<Long> findAvailableIdsBySubstring(String pattern, int limit, long offset);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.id in ?1")
+    List<ItemDto> findDtosByIdIn(List<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.available = true and i.id > ?1 " +
+            "order by i.id")
+    List<ItemDto> findAvailableDtosAfter(Long afterId, Limit limit);
 }
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс доступных для бронирования вещей.
+ * Вещь находится, если в её названии или описании есть все термы запроса;
+ * релевантность - сумма весов вхождений (название весит вдвое больше описания), умноженных на idf терма.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final Comparator<ScoredItem> WORST_FIRST = Comparator
+            .comparingDouble(ScoredItem::score)
+            .thenComparing(ScoredItem::itemId, Comparator.reverseOrder());
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, String[]> termsByItemId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет или переиндексирует вещь. Недоступная вещь из индекса удаляется.
+     */
+    public void index(Long itemId, String name, String description, boolean available) {
+        Map<String, Float> weights = new LinkedHashMap<>();
+        if (available) {
+            for (String term : SearchTokenizer.terms(name)) {
+                weights.merge(term, NAME_WEIGHT, Float::sum);
+            }
+            for (String term : SearchTokenizer.terms(description)) {
+                weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+            if (weights.isEmpty()) {
+                return;
+            }
+            String[] terms = new String[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                String term = entry.getKey();
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    list = new PostingList();
+                    postings.put(term, list);
+                }
+                list.put(itemId, entry.getValue());
+                terms[i++] = term;
+            }
+            termsByItemId.put(itemId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Идентификаторы найденных вещей по убыванию релевантности, при равенстве - по возрастанию id.
+     */
+    public List<Long> search(String text, int from, int size) {
+        List<String> terms = SearchTokenizer.terms(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>();
+            List<Float> idfs = new ArrayList<>();
+            for (String term : terms.stream().distinct().toList()) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+                idfs.add((float) Math.log(1 + (double) termsByItemId.size() / list.size()));
+            }
+            // from + size переполняет int при больших значениях из запроса
+            int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+            return topItems(lists, idfs, limit).stream()
+                    .skip(from)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByItemId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Обходит самый короткий список и проверяет остальные бинарным поиском, держа в куче только limit лучших
+    private List<Long> topItems(List<PostingList> lists, List<Float> idfs, int limit) {
+        int shortest = 0;
+        for (int i = 1; i < lists.size(); i++) {
+            if (lists.get(i).size() < lists.get(shortest).size()) {
+                shortest = i;
+            }
+        }
+        PostingList driver = lists.get(shortest);
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(WORST_FIRST);
+        for (int position = 0; position < driver.size(); position++) {
+            long itemId = driver.itemIdAt(position);
+            float score = driver.weightAt(position) * idfs.get(shortest);
+            for (int i = 0; i < lists.size() && score >= 0; i++) {
+                if (i != shortest) {
+                    float weight = lists.get(i).weightOf(itemId);
+                    score = weight < 0 ? -1 : score + weight * idfs.get(i);
+                }
+            }
+            if (score >= 0) {
+                top.add(new ScoredItem(itemId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Long> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().itemId());
+        }
+        return result.reversed();
+    }
+
+    private void removeLocked(Long itemId) {
+        String[] terms = termsByItemId.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            list.remove(itemId);
+            if (list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private record ScoredItem(long itemId, float score) {
+    }
+}
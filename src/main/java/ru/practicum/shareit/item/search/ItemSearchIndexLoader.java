@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Заполняет поисковый индекс при старте, читая доступные вещи порциями по id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndexLoader {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0;
+        List<ItemDto> chunk;
+        do {
+            chunk = itemRepository.findAvailableDtosAfter(lastId, Limit.of(CHUNK_SIZE));
+            for (ItemDto item : chunk) {
+                itemSearchIndex.index(item.getId(), item.getName(), item.getDescription(), true);
+                lastId = item.getId();
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+        log.info("Поисковый индекс вещей построен: {} вещей", itemSearchIndex.size());
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxConsumer;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Обновляет поисковый индекс по событиям вещей из outbox. Вещи перечитываются одним запросом на пачку,
+ * поэтому в индекс попадает последнее зафиксированное состояние, сколько бы событий ни пришло по вещи.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndexer implements OutboxConsumer {
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        List<Long> itemIds = events.stream()
+                .filter(event -> event.getAggregateType() == AggregateType.ITEM)
+                .map(OutboxEvent::getAggregateId)
+                .distinct()
+                .toList();
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        for (ItemDto item : itemRepository.findDtosByIdIn(itemIds)) {
+            itemSearchIndex.index(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+        }
+    }
+}
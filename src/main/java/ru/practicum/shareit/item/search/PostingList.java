@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Отсортированный по id вещи список вхождений терма с весами.
+ * Примитивные массивы вместо коллекций объектов, чтобы индекс по миллиону вещей помещался в память.
+ */
+final class PostingList {
+    private long[] itemIds = new long[2];
+    private float[] weights = new float[2];
+    private int size;
+
+    void put(long itemId, float weight) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position >= 0) {
+            weights[position] = weight;
+            return;
+        }
+        int insertAt = -position - 1;
+        if (size == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(itemIds, insertAt, itemIds, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        itemIds[insertAt] = itemId;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(itemIds, position + 1, itemIds, position, size - position - 1);
+        System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * Вес вхождения или отрицательное число, если вещи в списке нет.
+     */
+    float weightOf(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        return position >= 0 ? weights[position] : -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long itemIdAt(int index) {
+        return itemIds[index];
+    }
+
+    float weightAt(int index) {
+        return weights[index];
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки поиска вещей (shareit.search.*).
+ */
+@ConfigurationProperties("shareit.search")
+public record SearchProperties(@DefaultValue("like") SubstringSearchStrategy substringStrategy) {
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбивает текст на термы: нижний регистр, ё -> е, слова из букв и цифр,
+ * затем лёгкий стемминг (отсечение окончаний) отдельно для кириллицы и латиницы.
+ */
+final class SearchTokenizer {
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MIN_STEM_LENGTH = 3;
+
+    // Отсортированы от длинных к коротким: отсекается самое длинное подходящее окончание
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "иях", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ией", "ях", "ах", "ей", "ой", "ий", "ый", "ая", "яя", "ое", "ее", "ие", "ые",
+            "ую", "юю", "ом", "ем", "ам", "ям", "ов", "ев", "ию", "ья", "ье", "ьи", "ью", "ия",
+            "а", "я", "о", "е", "и", "ы", "у", "ю", "ь", "й"
+    };
+    private static final String[] ENGLISH_ENDINGS = {"ing", "ies", "es", "ed", "s"};
+
+    private SearchTokenizer() {
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    terms.add(stem(normalized.substring(start, i)));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        String[] endings = isCyrillic(token) ? RUSSIAN_ENDINGS : ENGLISH_ENDINGS;
+        for (String ending : endings) {
+            if (token.endsWith(ending) && token.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - ending.length());
+            }
+        }
+        return token;
+    }
+
+    private static boolean isCyrillic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.UnicodeBlock.of(token.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
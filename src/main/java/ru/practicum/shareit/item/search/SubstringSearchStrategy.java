@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.search;
+
+public enum SubstringSearchStrategy {
+    // Нативный запрос под триграммный GIN-индекс Postgres (pg_trgm)
+    TRIGRAM,
+    // Переносимый JPQL-запрос с LIKE, работает в любой базе, но читает всю таблицу
+    LIKE
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.enums.SearchMode;
 
 import java.util.List;
 
@@ -12,7 +13,10 @@ public interface ItemService {
 
     ItemWithBookingsDto getItem(Long userId, Long itemId);
 
-    List<ItemWithBookingsDto> getItemsByOwner(Long ownerId);
+    List<ItemWithBookingsDto> getItemsByOwnerAfter(Long ownerId, Long afterId, int size);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, SearchMode mode, int from, int size);
+
+    // Без пагинации - все найденные вещи, как до появления from/size
+    List<ItemDto> searchItems(String text, SearchMode mode);
 }
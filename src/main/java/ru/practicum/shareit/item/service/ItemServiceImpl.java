@@ -2,55 +2,91 @@ package ru.practicum.shareit.item.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.enums.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.repository.BookingRepository;
-import ru.practicum.shareit.comment.model.Comment;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingFrontier;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.frontier.BookingFrontierService;
+import ru.practicum.shareit.comment.dto.CommentCountView;
+import ru.practicum.shareit.comment.dto.CommentView;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.OffsetPageRequest;
+import ru.practicum.shareit.common.TransactionHooks;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.enums.SearchMode;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchProperties;
+import ru.practicum.shareit.item.search.SubstringSearchStrategy;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @AllArgsConstructor
+@Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    // Сколько самых новых комментариев встраивать в карточку вещи
+    private static final int LATEST_COMMENTS = 10;
+
     private final EntityFinder entityFinder;
     private final ItemRepository itemRepository;
-    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingFrontierService bookingFrontierService;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final SearchProperties searchProperties;
+    private final OutboxWriter outboxWriter;
+    private final EntityVersions entityVersions;
 
     @Override
+    @Transactional
     public ItemDto createItem(Long userId, ItemDto itemDto) {
         User existsUser = entityFinder.getUserOrThrow(userId);
         validateItemForCreate(itemDto);
-        Item item = ItemMapper.toItem(itemDto, existsUser, null);
+        Item item = ItemMapper.toItem(itemDto, existsUser, getRequestReference(itemDto.getRequestId()));
+        Item savedItem = itemRepository.save(item);
+        // Поисковый индекс обновляется по событию из outbox (ItemSearchIndexer)
+        outboxWriter.record(AggregateType.ITEM, savedItem.getId(), OutboxEventType.CREATED);
+        TransactionHooks.afterCommit(() -> {
+            entityFinder.evictItem(savedItem.getId());
+            entityVersions.bump(EntityVersions.Kind.OWNER, userId);
+        });
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
+    @Transactional
     public  ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
         entityFinder.getUserOrThrow(userId);
-        Item foundItem = entityFinder.getItemOrThrow(itemId);
+        Item foundItem = entityFinder.getItemForUpdateOrThrow(itemId);
         if (!foundItem.getOwner().getId().equals(userId)) {
             log.warn("Пользователь userId={} не является владельцем этой вещи id={}", userId, foundItem.getOwner().getId());
             throw new NotFoundException("Пользователь не является владельцем этой вещи");
         }
+        boolean renamed = itemDto.getName() != null && !itemDto.getName().equals(foundItem.getName());
         if (itemDto.getName() != null) {
             if (itemDto.getName().isBlank()) {
                 log.warn("На обновление передано пустое имя");
@@ -68,105 +104,153 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             foundItem.setAvailable(itemDto.getAvailable());
         }
+        Item savedItem = itemRepository.save(foundItem);
+        outboxWriter.record(AggregateType.ITEM, itemId, OutboxEventType.UPDATED);
+        TransactionHooks.afterCommit(() -> {
+            entityFinder.evictItem(itemId);
+            entityVersions.bump(EntityVersions.Kind.ITEM, itemId);
+            entityVersions.bump(EntityVersions.Kind.OWNER, userId);
+            // Название вещи входит в ответы по её бронированиям
+            if (renamed) {
+                entityVersions.invalidate(EntityVersions.Kind.BOOKING);
+            }
+        });
 
-        return ItemMapper.toItemDto(itemRepository.save(foundItem));
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
     public ItemWithBookingsDto getItem(Long userId, Long itemId) {
-        Item item = entityFinder.getItemOrThrow(itemId);
-        LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking = null;
-        Booking nextBooking = null;
-        if (Objects.equals(userId, item.getOwner().getId())) {
-            lastBooking = bookingRepository.findFirstByItemIdAndEndBeforeAndStatusOrderByEndDesc(
-                            itemId,
-                            now,
-                            BookingStatus.APPROVED
-                    )
-                    .orElse(null);
-            nextBooking = bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                            itemId,
-                            now,
-                            BookingStatus.APPROVED
-                    )
-                    .orElse(null);
-        }
-
-        List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(itemId);
-
-        return ItemMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments);
+        ItemView item = itemRepository.findViewById(itemId)
+                .orElseThrow(() -> {
+                    log.warn("Вещь с id={} не найдена", itemId);
+                    return new NotFoundException("Вещь не найдена");
+                });
+        BookingShortView lastBooking = null;
+        BookingShortView nextBooking = null;
+        if (Objects.equals(userId, item.ownerId())) {
+            BookingFrontier frontier = bookingFrontierService.getFrontiers(List.of(itemId)).get(itemId);
+            lastBooking = frontier.lastBooking();
+            nextBooking = frontier.nextBooking();
+        }
+
+        List<CommentView> comments = commentRepository.findLatestViewsByItemIdIn(List.of(itemId), LATEST_COMMENTS);
+        long commentsCount = countComments(List.of(itemId)).getOrDefault(itemId, 0L);
+
+        return ItemMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments, commentsCount);
     }
 
     @Override
-    public List<ItemWithBookingsDto> getItemsByOwner(Long userId) {
+    public List<ItemWithBookingsDto> getItemsByOwnerAfter(Long userId, Long afterId, int size) {
         entityFinder.getUserOrThrow(userId);
+        if (size <= 0) {
+            log.warn("Некорректный размер страницы: size={}", size);
+            throw new ValidationException("Параметр size должен быть больше 0");
+        }
+        long after = afterId == null ? 0L : afterId;
+        return toItemsWithBookings(itemRepository.findViewsByOwnerIdAfter(userId, after, Limit.of(size)));
+    }
 
-        List<Item> items = itemRepository.findAllByOwnerId(userId);
+    // Бронирования и комментарии загружаются только для переданных вещей, одним запросом каждые
+    private List<ItemWithBookingsDto> toItemsWithBookings(List<ItemView> items) {
         if (items.isEmpty()) {
             return List.of();
         }
         List<Long> itemIds = items.stream()
-                .map(Item::getId)
+                .map(ItemView::id)
                 .toList();
-        LocalDateTime now = LocalDateTime.now();
-
-        List<Booking> pastBookings = bookingRepository
-                .findByItemIdInAndEndBeforeAndStatusOrderByEndDesc(
-                        itemIds,
-                        now,
-                        BookingStatus.APPROVED
-                );
-
-        Map<Long, Booking> lastBookingByItemId = new HashMap<>();
-        for (Booking booking : pastBookings) {
-            Long itemId = booking.getItem().getId();
-            lastBookingByItemId.putIfAbsent(itemId, booking);
-        }
-        List<Booking> futureBookings = bookingRepository
-                .findByItemIdInAndStartAfterAndStatusOrderByStartAsc(
-                        itemIds,
-                        now,
-                        BookingStatus.APPROVED
-                );
-        Map<Long, Booking> nextBookingByItemId = new HashMap<>();
-        for (Booking booking : futureBookings) {
-            Long itemId = booking.getItem().getId();
-            nextBookingByItemId.putIfAbsent(itemId, booking);
-        }
-
-        List<Comment> comments = commentRepository.findByItemIdInOrderByCreatedDesc(itemIds);
-        Map<Long, List<Comment>> commentByItemId = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, BookingFrontier> frontierByItemId = bookingFrontierService.getFrontiers(itemIds);
+
+        List<CommentView> comments = commentRepository.findLatestViewsByItemIdIn(itemIds, LATEST_COMMENTS);
+        Map<Long, List<CommentView>> commentByItemId = comments.stream()
+                .collect(Collectors.groupingBy(CommentView::itemId));
+        Map<Long, Long> commentsCountByItemId = countComments(itemIds);
 
         return items.stream()
                 .map(item -> {
-                    Long itemId = item.getId();
-                    Booking lastBooking = lastBookingByItemId.get(itemId);
-                    Booking nextBooking = nextBookingByItemId.get(itemId);
-                    List<Comment> itemComments = commentByItemId
+                    Long itemId = item.id();
+                    BookingFrontier frontier = frontierByItemId.get(itemId);
+                    List<CommentView> itemComments = commentByItemId
                             .getOrDefault(itemId, List.of());
 
                     return ItemMapper.toItemWithBookingsDto(
                             item,
-                            lastBooking,
-                            nextBooking,
-                            itemComments
+                            frontier.lastBooking(),
+                            frontier.nextBooking(),
+                            itemComments,
+                            commentsCountByItemId.getOrDefault(itemId, 0L)
                     );
                 })
                 .toList();
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, SearchMode mode, int from, int size) {
+        if (from < 0 || size <= 0) {
+            log.warn("Некорректные параметры пагинации: from={} size={}", from, size);
+            throw new ValidationException("Параметры пагинации должны быть: from >= 0, size > 0");
+        }
+        return search(text, mode, from, size);
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String text, SearchMode mode) {
+        return search(text, mode, 0, null);
+    }
+
+    // size = null - без ограничения
+    private List<ItemDto> search(String text, SearchMode mode, int from, Integer size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return itemRepository.searchAvailableByText(text).stream()
-                .map(ItemMapper::toItemDto)
+        if (mode == SearchMode.SUBSTRING) {
+            return searchSubstring(text, from, size);
+        }
+        return findDtosInOrder(itemSearchIndex.search(text, from, size == null ? Integer.MAX_VALUE : size));
+    }
+
+    private List<ItemDto> searchSubstring(String text, int from, Integer size) {
+        String pattern = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        if (searchProperties.substringStrategy() == SubstringSearchStrategy.TRIGRAM) {
+            return findDtosInOrder(itemRepository.findAvailableIdsBySubstring(pattern,
+                    size == null ? Integer.MAX_VALUE : size, from));
+        }
+        Pageable page = size == null ? Pageable.unpaged() : OffsetPageRequest.of(from, size, Sort.unsorted());
+        return itemRepository.searchAvailableByText(pattern, page);
+    }
+
+    // Порядок задаёт переданный список id, база отдаёт строки в произвольном порядке
+    private List<ItemDto> findDtosInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemDto> itemById = itemRepository.findDtosByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return itemIds.stream()
+                .map(itemById::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
+    private Map<Long, Long> countComments(List<Long> itemIds) {
+        return commentRepository.countByItemIdIn(itemIds).stream()
+                .collect(Collectors.toMap(CommentCountView::itemId, CommentCountView::count));
+    }
+
+    // Ссылка без загрузки строки: запросу нужен только id
+    private ItemRequest getRequestReference(Long requestId) {
+        if (requestId == null) {
+            return null;
+        }
+        if (!itemRequestRepository.existsById(requestId)) {
+            log.warn("Запрос с id={} не найден", requestId);
+            throw new NotFoundException("Запрос не найден");
+        }
+        return itemRequestRepository.getReferenceById(requestId);
+    }
+
     private void validateItemForCreate(ItemDto itemDto) {
         if (itemDto.getName() == null || itemDto.getName().isBlank()) {
             log.warn("Наименование вещи не может быть пустым");
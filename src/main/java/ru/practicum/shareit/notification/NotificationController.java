@@ -0,0 +1,29 @@
+package ru.practicum.shareit.notification;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.constants.HeaderConstants;
+
+/**
+ * Поток уведомлений пользователя (text/event-stream) вместо опроса /bookings/owner и /requests/all:
+ * новые бронирования вещей владельца, решения по своим бронированиям, новые запросы вещей.
+ */
+@RestController
+@RequestMapping("/notifications")
+@AllArgsConstructor
+public class NotificationController {
+    private final NotificationHub notificationHub;
+    private final EntityFinder entityFinder;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(HeaderConstants.USER_ID) Long userId) {
+        entityFinder.getUserOrThrow(userId);
+        return notificationHub.subscribe(userId);
+    }
+}
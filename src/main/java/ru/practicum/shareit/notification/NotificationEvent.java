@@ -0,0 +1,16 @@
+package ru.practicum.shareit.notification;
+
+/**
+ * Событие для подписчиков /notifications. recipientId = null - всем подключённым, кроме authorId.
+ * Публикуется через ApplicationEventPublisher внутри транзакции и доставляется после её фиксации.
+ */
+public record NotificationEvent(NotificationType type, Long recipientId, Long authorId, Object data) {
+
+    public static NotificationEvent toUser(NotificationType type, Long recipientId, Object data) {
+        return new NotificationEvent(type, recipientId, null, data);
+    }
+
+    public static NotificationEvent broadcast(NotificationType type, Long authorId, Object data) {
+        return new NotificationEvent(type, null, authorId, data);
+    }
+}
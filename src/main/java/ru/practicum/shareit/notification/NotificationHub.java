@@ -0,0 +1,158 @@
+package ru.practicum.shareit.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Подписки на /notifications. Соединение держит асинхронный запрос, а не поток Tomcat, поэтому открытых
+ * соединений может быть тысячи. Публикация только кладёт событие в ограниченную очередь подписчика;
+ * очередь разбирается отдельным виртуальным потоком, так что медленный клиент задерживает только себя.
+ * Подписчик, чья очередь переполнена, отключается: клиент переподключается и перечитывает состояние по REST.
+ * Кадр собирается один раз на событие и отправляется всем как неизменяемый набор частей:
+ * SseEventBuilder при каждом build() дописывает себя, поэтому делить его между подписчиками нельзя.
+ */
+@Slf4j
+@Component
+public class NotificationHub {
+    private final NotificationProperties properties;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong connected = new AtomicLong();
+    private final Counter droppedCounter;
+
+    public NotificationHub(NotificationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.droppedCounter = Counter.builder("shareit.notifications.dropped")
+                .description("Подписчики, отключённые из-за переполнения очереди")
+                .register(meterRegistry);
+        Gauge.builder("shareit.notifications.subscribers", connected, AtomicLong::get)
+                .description("Открытые подписки на уведомления")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(properties.bufferSize()));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        connected.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    // fallbackExecution: события вне транзакции (например, из тестов) доставляются сразу
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(NotificationEvent event) {
+        Set<DataWithMediaType> message = frame(SseEmitter.event()
+                .id(String.valueOf(eventIds.incrementAndGet()))
+                .name(event.type().name())
+                .data(event.data(), MediaType.APPLICATION_JSON));
+        if (event.recipientId() != null) {
+            subscribers.getOrDefault(event.recipientId(), Set.of())
+                    .forEach(subscriber -> enqueue(subscriber, message));
+            return;
+        }
+        subscribers.forEach((userId, userSubscribers) -> {
+            if (!userId.equals(event.authorId())) {
+                userSubscribers.forEach(subscriber -> enqueue(subscriber, message));
+            }
+        });
+    }
+
+    // Комментарий SSE: клиенты его игнорируют, а оборванное соединение обнаруживается ошибкой записи
+    @Scheduled(fixedDelayString = "${shareit.notifications.heartbeat:PT15S}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = frame(SseEmitter.event().comment("ping"));
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> enqueue(subscriber, ping)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter().complete()));
+        senders.shutdownNow();
+    }
+
+    private void enqueue(Subscriber subscriber, Set<DataWithMediaType> message) {
+        if (!subscriber.queue().offer(message)) {
+            log.warn("Подписчик пользователя id={} не успевает читать уведомления и отключён", subscriber.userId());
+            droppedCounter.increment();
+            unsubscribe(subscriber);
+            // complete() ждёт незавершённую запись в этот же emitter, поэтому вне потока публикации
+            senders.execute(subscriber.emitter()::complete);
+            return;
+        }
+        if (subscriber.sending().compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> message;
+            while ((message = subscriber.queue().poll()) != null) {
+                try {
+                    subscriber.emitter().send(message);
+                } catch (IOException | IllegalStateException e) {
+                    // Клиент отключился или emitter уже завершён
+                    disconnect(subscriber);
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось отправить уведомление подписчику пользователя id={}", subscriber.userId(), e);
+                    disconnect(subscriber);
+                    subscriber.emitter().completeWithError(e);
+                    return;
+                }
+            }
+            subscriber.sending().set(false);
+            // Событие могло прийти между опустошением очереди и сбросом флага
+        } while (!subscriber.queue().isEmpty() && subscriber.sending().compareAndSet(false, true));
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        unsubscribe(subscriber);
+        subscriber.queue().clear();
+        subscriber.sending().set(false);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Set<Subscriber> userSubscribers = subscribers.get(subscriber.userId());
+        if (userSubscribers != null && userSubscribers.remove(subscriber)) {
+            connected.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.userId(), (id, set) -> set.isEmpty() ? null : set);
+        }
+    }
+
+    private static Set<DataWithMediaType> frame(SseEmitter.SseEventBuilder builder) {
+        return Collections.unmodifiableSet(builder.build());
+    }
+
+    private record Subscriber(Long userId, SseEmitter emitter, Queue<Set<DataWithMediaType>> queue,
+                              AtomicBoolean sending) {
+        Subscriber(Long userId, SseEmitter emitter, Queue<Set<DataWithMediaType>> queue) {
+            this(userId, emitter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.notification;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки потока /notifications (shareit.notifications.*): сколько неотправленных событий держать на подписчика
+ * (при переполнении подписчик отключается), время жизни соединения и период пустых сообщений, по которым
+ * обнаруживаются оборванные соединения.
+ */
+@ConfigurationProperties("shareit.notifications")
+public record NotificationProperties(
+        @DefaultValue("64") int bufferSize,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("15s") Duration heartbeat
+) {
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.notification;
+
+public enum NotificationType {
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_REJECTED,
+    ITEM_REQUEST_CREATED
+}
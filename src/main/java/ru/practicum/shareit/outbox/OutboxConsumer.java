@@ -0,0 +1,14 @@
+package ru.practicum.shareit.outbox;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. Пачка приходит в порядке id; исключение откатывает пачку целиком,
+ * и она доставляется всем получателям повторно - обработка должна быть идемпотентной.
+ */
+public interface OutboxConsumer {
+
+    void accept(List<OutboxEvent> events);
+}
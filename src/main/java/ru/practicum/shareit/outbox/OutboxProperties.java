@@ -0,0 +1,12 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Ретранслятор outbox (shareit.outbox.*): событий на транзакцию доставки.
+ * Только для одного экземпляра приложения: доставленные события удаляются, другие экземпляры их не получат.
+ */
+@ConfigurationProperties("shareit.outbox")
+public record OutboxProperties(@DefaultValue("500") int batchSize) {
+}
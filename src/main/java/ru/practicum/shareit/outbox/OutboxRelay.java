@@ -0,0 +1,86 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Доставляет события outbox получателям пачками в порядке id и удаляет их в той же транзакции.
+ * Доставка «хотя бы один раз»: если получатель упал или транзакция не зафиксировалась, пачка придёт снова.
+ * Порядок id совпадает с порядком изменений одного агрегата: изменения идут под блокировкой его строки,
+ * а id внутри экземпляра приложения растут.
+ * Рассчитан на один экземпляр приложения: получатели живут в памяти этого экземпляра (поисковый индекс),
+ * а доставленное событие удаляется. Со вторым экземпляром каждое событие получит только один из них,
+ * и индекс другого его не увидит - тогда нужно смещение на каждый экземпляр вместо удаления.
+ * Метрики: shareit.outbox.delivered, shareit.outbox.lag (от записи события до доставки), shareit.outbox.failures.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxConsumer> consumers;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deliveredCounter;
+    private final Counter failureCounter;
+    private final Timer lagTimer;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxConsumer> consumers,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.consumers = consumers;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveredCounter = Counter.builder("shareit.outbox.delivered")
+                .description("События outbox, доставленные получателям")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("shareit.outbox.failures")
+                .description("Пачки outbox, отменённые из-за ошибки получателя")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("shareit.outbox.lag")
+                .description("Задержка от записи события в outbox до его доставки")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.interval:PT1S}")
+    public void relay() {
+        int delivered;
+        do {
+            try {
+                delivered = transactionTemplate.execute(status -> deliverBatch());
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                log.error("Пачка outbox не доставлена, повтор на следующем проходе", e);
+                return;
+            }
+        } while (delivered == properties.batchSize());
+    }
+
+    private int deliverBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockOldest(Limit.of(properties.batchSize()));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        consumers.forEach(consumer -> consumer.accept(events));
+        outboxEventRepository.deleteAllInBatch(events);
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> lagTimer.record(Duration.between(event.getCreatedAt(), now)));
+        deliveredCounter.increment(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Пишет события в outbox. Вызывается только внутри транзакции изменения: событие фиксируется вместе с ним
+ * или не появляется вовсе.
+ */
+@Component
+@AllArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxWriter {
+    private final OutboxEventRepository outboxEventRepository;
+
+    public void record(AggregateType aggregateType, Long aggregateId, OutboxEventType eventType) {
+        outboxEventRepository.save(toEvent(aggregateType, aggregateId, eventType, LocalDateTime.now()));
+    }
+
+    public void recordAll(AggregateType aggregateType, Collection<Long> aggregateIds, OutboxEventType eventType) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = aggregateIds.stream()
+                .map(aggregateId -> toEvent(aggregateType, aggregateId, eventType, now))
+                .toList();
+        outboxEventRepository.saveAll(events);
+    }
+
+    private static OutboxEvent toEvent(AggregateType aggregateType, Long aggregateId, OutboxEventType eventType,
+                                       LocalDateTime createdAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+}
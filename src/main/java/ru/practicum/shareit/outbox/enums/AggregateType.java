@@ -0,0 +1,8 @@
+package ru.practicum.shareit.outbox.enums;
+
+public enum AggregateType {
+    USER,
+    ITEM,
+    BOOKING,
+    COMMENT
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.outbox.enums;
+
+public enum OutboxEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
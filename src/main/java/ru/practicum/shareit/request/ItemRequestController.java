@@ -1,12 +1,63 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@AllArgsConstructor
 public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ResponseEntity<ItemRequestDto> createRequest(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @RequestBody ItemRequestDto requestDto) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(itemRequestService.createRequest(userId, requestDto));
+    }
+
+    // Свои запросы, от новых к старым, вместе с ответами
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDto>> getOwnRequests(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "after", required = false) String after) {
+        return withNextCursor(itemRequestService.getOwnRequests(userId, after, size), size);
+    }
+
+    // Запросы других пользователей, от новых к старым
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherRequests(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "after", required = false) String after) {
+        return withNextCursor(itemRequestService.getOtherRequests(userId, after, size), size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ResponseEntity<ItemRequestDto> getRequest(
+            @RequestHeader(HeaderConstants.USER_ID) Long userId,
+            @PathVariable Long requestId) {
+        return ResponseEntity.ok().body(itemRequestService.getRequest(userId, requestId));
+    }
+
+    // Курсор на последний элемент полной страницы: по нему клиент запрашивает следующую через after
+    private ResponseEntity<List<ItemRequestDto>> withNextCursor(List<ItemRequestDto> requests, int size) {
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        ItemRequestDto last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(HeaderConstants.NEXT_CURSOR, new KeysetCursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
+    }
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request.dto;
+
+/**
+ * Проекция вещи, добавленной в ответ на запрос, с идентификатором запроса для группировки.
+ */
+public record ItemAnswerView(Long id, String name, Long ownerId, Long requestId) {
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.dto;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class ItemRequestDto {
@@ -10,4 +11,13 @@ public class ItemRequestDto {
     private String description;
     private Long requestorId;
     private LocalDateTime created;
+    private List<ItemAnswerDto> items;
+
+    // Вещь, добавленная в ответ на запрос
+    @Data
+    public static class ItemAnswerDto {
+        private Long id;
+        private String name;
+        private Long ownerId;
+    }
 }
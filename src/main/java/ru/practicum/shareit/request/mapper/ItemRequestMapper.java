@@ -0,0 +1,57 @@
+package ru.practicum.shareit.request.mapper;
+
+import ru.practicum.shareit.request.dto.ItemAnswerView;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestView;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ItemRequestMapper {
+
+    public static ItemRequest toItemRequest(ItemRequestDto dto, User requester, LocalDateTime created) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription(dto.getDescription());
+        request.setRequester(requester);
+        request.setCreated(created);
+        return request;
+    }
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest request) {
+        if (request == null) {
+            return null;
+        }
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setId(request.getId());
+        dto.setDescription(request.getDescription());
+        dto.setRequestorId(request.getRequester().getId());
+        dto.setCreated(request.getCreated());
+        dto.setItems(List.of());
+        return dto;
+    }
+
+    public static ItemRequestDto toItemRequestDto(ItemRequestView view, List<ItemAnswerView> answers) {
+        if (view == null) {
+            return null;
+        }
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setId(view.id());
+        dto.setDescription(view.description());
+        dto.setRequestorId(view.requesterId());
+        dto.setCreated(view.created());
+        dto.setItems(answers.stream()
+                .map(ItemRequestMapper::toItemAnswerDto)
+                .toList());
+        return dto;
+    }
+
+    private static ItemRequestDto.ItemAnswerDto toItemAnswerDto(ItemAnswerView view) {
+        ItemRequestDto.ItemAnswerDto dto = new ItemRequestDto.ItemAnswerDto();
+        dto.setId(view.id());
+        dto.setName(view.name());
+        dto.setOwnerId(view.ownerId());
+        return dto;
+    }
+}
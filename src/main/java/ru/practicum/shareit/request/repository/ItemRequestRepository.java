@@ -0,0 +1,49 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestView;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ленты запросов упорядочены по (created DESC, id DESC); следующая страница начинается строго после
+ * последней строки предыдущей, поэтому глубина листания не влияет на стоимость запроса.
+ */
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestView(r.id, r.description, r.requester.id, r.created) " +
+            "from ItemRequest r " +
+            "where r.id = ?1")
+    Optional<ItemRequestView> findViewById(Long requestId);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestView(r.id, r.description, r.requester.id, r.created) " +
+            "from ItemRequest r " +
+            "where r.requester.id = ?1 " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestView> findViewsByRequesterId(Long requesterId, Limit limit);
+
+    // Как и в findViewsOfOthersBefore: created <= ?2 - диапазон по индексу (requester_id, created, id)
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestView(r.id, r.description, r.requester.id, r.created) " +
+            "from ItemRequest r " +
+            "where r.requester.id = ?1 and r.created <= ?2 and (r.created < ?2 or r.id < ?3) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestView> findViewsByRequesterIdBefore(Long requesterId, LocalDateTime created, Long id, Limit limit);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestView(r.id, r.description, r.requester.id, r.created) " +
+            "from ItemRequest r " +
+            "where r.requester.id <> ?1 " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestView> findViewsOfOthers(Long userId, Limit limit);
+
+    // Отдельное условие created <= ?2 даёт диапазон по индексу (created, id): под одним OR его не видно
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestView(r.id, r.description, r.requester.id, r.created) " +
+            "from ItemRequest r " +
+            "where r.requester.id <> ?1 and r.created <= ?2 and (r.created < ?2 or r.id < ?3) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestView> findViewsOfOthersBefore(Long userId, LocalDateTime created, Long id, Limit limit);
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto createRequest(Long requesterId, ItemRequestDto requestDto);
+
+    List<ItemRequestDto> getOwnRequests(Long requesterId, String after, int size);
+
+    List<ItemRequestDto> getOtherRequests(Long userId, String after, int size);
+
+    ItemRequestDto getRequest(Long userId, Long requestId);
+}
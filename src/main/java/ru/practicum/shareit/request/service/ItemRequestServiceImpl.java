@@ -0,0 +1,121 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.notification.NotificationEvent;
+import ru.practicum.shareit.notification.NotificationType;
+import ru.practicum.shareit.request.dto.ItemAnswerView;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestView;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final EntityFinder entityFinder;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public ItemRequestDto createRequest(Long requesterId, ItemRequestDto requestDto) {
+        User requester = entityFinder.getUserOrThrow(requesterId);
+        if (requestDto.getDescription() == null || requestDto.getDescription().isBlank()) {
+            log.warn("Описание запроса не может быть пустым");
+            throw new ValidationException("Описание запроса не может быть пустым");
+        }
+        // Точность timestamp в базе - микросекунды: ответ и курсор должны совпадать с сохранённым значением
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        ItemRequest saved = itemRequestRepository.save(
+                ItemRequestMapper.toItemRequest(requestDto, requester, created));
+        ItemRequestDto response = ItemRequestMapper.toItemRequestDto(saved);
+        // Ответить вещью может любой пользователь, поэтому запрос рассылается всем подписчикам, кроме автора
+        eventPublisher.publishEvent(NotificationEvent.broadcast(NotificationType.ITEM_REQUEST_CREATED,
+                requesterId, response));
+        return response;
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnRequests(Long requesterId, String after, int size) {
+        entityFinder.getUserOrThrow(requesterId);
+        validateSize(size);
+        KeysetCursor cursor = decode(after);
+        List<ItemRequestView> requests = cursor == null
+                ? itemRequestRepository.findViewsByRequesterId(requesterId, Limit.of(size))
+                : itemRequestRepository.findViewsByRequesterIdBefore(requesterId, cursor.timestamp(), cursor.id(),
+                Limit.of(size));
+        return withAnswers(requests);
+    }
+
+    @Override
+    public List<ItemRequestDto> getOtherRequests(Long userId, String after, int size) {
+        entityFinder.getUserOrThrow(userId);
+        validateSize(size);
+        KeysetCursor cursor = decode(after);
+        List<ItemRequestView> requests = cursor == null
+                ? itemRequestRepository.findViewsOfOthers(userId, Limit.of(size))
+                : itemRequestRepository.findViewsOfOthersBefore(userId, cursor.timestamp(), cursor.id(),
+                Limit.of(size));
+        return withAnswers(requests);
+    }
+
+    @Override
+    public ItemRequestDto getRequest(Long userId, Long requestId) {
+        entityFinder.getUserOrThrow(userId);
+        ItemRequestView request = itemRequestRepository.findViewById(requestId)
+                .orElseThrow(() -> {
+                    log.warn("Запрос с id={} не найден", requestId);
+                    return new NotFoundException("Запрос не найден");
+                });
+        return withAnswers(List.of(request)).get(0);
+    }
+
+    // Ответы на все запросы страницы - одним запросом по списку id
+    private List<ItemRequestDto> withAnswers(List<ItemRequestView> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequestView::id)
+                .toList();
+        Map<Long, List<ItemAnswerView>> answersByRequestId = itemRepository.findAnswersByRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(ItemAnswerView::requestId));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answersByRequestId.getOrDefault(request.id(), List.of())))
+                .toList();
+    }
+
+    private KeysetCursor decode(String after) {
+        return after == null || after.isBlank() ? null : KeysetCursor.decode(after);
+    }
+
+    private void validateSize(int size) {
+        if (size <= 0) {
+            log.warn("Некорректный размер страницы: size={}", size);
+            throw new ValidationException("Параметр size должен быть больше 0");
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.common.NdjsonStreams;
+import ru.practicum.shareit.constants.HeaderConstants;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -15,7 +20,11 @@ import java.util.List;
 @RequestMapping(path = "/users")
 @AllArgsConstructor
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int STREAM_FLUSH_SIZE = 500;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(@RequestBody UserDto userDto) {
@@ -32,9 +41,27 @@ public class UserController {
         return ResponseEntity.ok().body(userService.getUser(id));
     }
 
+    // Страница по возрастанию id, без size - DEFAULT_PAGE_SIZE пользователей; весь список - потоком application/x-ndjson
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok().body(userService.getAllUsers());
+    public ResponseEntity<List<UserDto>> getAllUsers(
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "size", required = false) Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        List<UserDto> users = userService.getUsersAfter(after, pageSize);
+        if (users.size() < pageSize) {
+            return ResponseEntity.ok().body(users);
+        }
+        return ResponseEntity.ok()
+                .header(HeaderConstants.NEXT_CURSOR, String.valueOf(users.get(users.size() - 1).getId()))
+                .body(users);
+    }
+
+    // Все пользователи одним ответом NDJSON, читаются курсором базы без загрузки списка в память
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonStreams.<UserDto>fromSource(objectMapper, STREAM_FLUSH_SIZE, userService::forEachUser));
     }
 
     @DeleteMapping("/{id}")
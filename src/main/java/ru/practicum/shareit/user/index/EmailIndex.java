@@ -0,0 +1,144 @@
+package ru.practicum.shareit.user.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Считающий фильтр Блума по email пользователей. {@code mightContain == false} означает, что адрес точно свободен,
+ * и проверка уникальности обходится без запроса; при {@code true} занятость подтверждается запросом к базе.
+ * Счётчики вместо битов позволяют убирать адреса при удалении и смене email.
+ * До окончания прогрева фильтр отвечает «возможно занят» и не убирает адреса. Расхождения
+ * (другой экземпляр приложения, гонка с прогревом) ведут к ложному «свободен»: такой адрес отсекает
+ * ограничение UQ_USER_EMAIL, и сервис отвечает тем же EmailAlreadyExistsException.
+ */
+@Slf4j
+@Component
+public class EmailIndex {
+    private static final int WARM_UP_CHUNK_SIZE = 1000;
+    private static final int MAX_COUNT = 0xFF;
+
+    private final UserRepository userRepository;
+    private final byte[] counters;
+    private final int hashCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public EmailIndex(UserRepository userRepository, EmailIndexProperties properties) {
+        this.userRepository = userRepository;
+        double bits = -properties.expectedEmails() * Math.log(properties.falsePositiveRate()) / (Math.log(2) * Math.log(2));
+        this.counters = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.ceil(bits))];
+        this.hashCount = Math.max(1, (int) Math.round(counters.length / (double) properties.expectedEmails() * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long lastId = 0;
+        long loaded = 0;
+        List<UserDto> chunk;
+        do {
+            chunk = userRepository.findDtosAfter(lastId, Limit.of(WARM_UP_CHUNK_SIZE));
+            for (UserDto user : chunk) {
+                add(user.getEmail());
+                lastId = user.getId();
+            }
+            loaded += chunk.size();
+        } while (chunk.size() == WARM_UP_CHUNK_SIZE);
+        ready = true;
+        log.info("Индекс email прогрет: {} адресов, {} счётчиков, {} хэш-функций", loaded, counters.length, hashCount);
+    }
+
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = hash1(email);
+        long h2 = hash2(h1);
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < hashCount; i++) {
+                if (counters[position(h1, h2, i)] == 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String email) {
+        long h1 = hash1(email);
+        long h2 = hash2(h1);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < hashCount; i++) {
+                int position = position(h1, h2, i);
+                int count = Byte.toUnsignedInt(counters[position]);
+                if (count < MAX_COUNT) {
+                    counters[position] = (byte) (count + 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String email) {
+        // До прогрева адрес мог ещё не попасть в фильтр, а уменьшение чужих счётчиков даст ложное «свободен»
+        if (!ready) {
+            return;
+        }
+        long h1 = hash1(email);
+        long h2 = hash2(h1);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < hashCount; i++) {
+                int position = position(h1, h2, i);
+                int count = Byte.toUnsignedInt(counters[position]);
+                // Переполненный счётчик уже не знает, сколько адресов на него легло, и остаётся как есть
+                if (count > 0 && count < MAX_COUNT) {
+                    counters[position] = (byte) (count - 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Двойное хэширование: k позиций из двух 64-битных хэшей
+    private int position(long h1, long h2, int i) {
+        return (int) Long.remainderUnsigned(h1 + i * h2, counters.length);
+    }
+
+    // FNV-1a по символам с перемешиванием из MurmurHash3
+    private static long hash1(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long hash2(long h1) {
+        return mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user.index;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Размер фильтра Блума для email (shareit.email-index.*): при expectedEmails адресов доля ложных срабатываний
+ * около falsePositiveRate, дальше растёт. Фильтр занимает примерно 9.6 байта на адрес при 1%.
+ */
+@ConfigurationProperties("shareit.email-index")
+public record EmailIndexProperties(
+        @DefaultValue("1000000") int expectedEmails,
+        @DefaultValue("0.01") double falsePositiveRate
+) {
+}
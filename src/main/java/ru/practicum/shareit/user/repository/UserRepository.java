@@ -1,9 +1,38 @@
 package ru.practicum.shareit.user.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
+
+    @Query("select u.email from User u where u.email in ?1")
+    List<String> findEmailsIn(Collection<String> emails);
+
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u where u.id = ?1")
+    Optional<UserDto> findDtoById(Long id);
+
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u " +
+            "where u.id > ?1 order by u.id")
+    List<UserDto> findDtosAfter(Long afterId, Limit limit);
+
+    /**
+     * Все пользователи курсором базы: строки приходят порциями по fetch size и не попадают в контекст персистентности.
+     * Вызывать внутри транзакции (Postgres без неё игнорирует fetch size) и закрывать поток.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserDto> streamAllDtos();
 }
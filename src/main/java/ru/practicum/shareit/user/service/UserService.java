@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -12,7 +13,9 @@ public interface UserService {
 
     UserDto getUser(Long id);
 
-    List<UserDto> getAllUsers();
+    List<UserDto> getUsersAfter(Long afterId, int size);
+
+    void forEachUser(Consumer<UserDto> action);
 
     void deleteUser(Long id);
 }
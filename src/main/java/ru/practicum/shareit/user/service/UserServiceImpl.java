@@ -2,53 +2,97 @@ package ru.practicum.shareit.user.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.exception.ValidationException;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.EntityFinder;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.EmailAlreadyExistsException;
+import ru.practicum.shareit.user.index.EmailIndex;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.validation.EmailValidator;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @AllArgsConstructor
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "UQ_USER_EMAIL";
+
     private final UserRepository userRepository;
+    private final EntityFinder entityFinder;
+    private final EmailIndex emailIndex;
+    private final OutboxWriter outboxWriter;
+    private final EntityVersions entityVersions;
 
     @Override
+    @Transactional
     public UserDto createUser(UserDto userDto) {
-        validateEmailFormat(userDto.getEmail());
+        EmailValidator.validateFormat(userDto.getEmail());
         validateEmailUnique(userDto.getEmail());
         User user = UserMapper.toUser(userDto);
-        User savedUser = userRepository.save(user);
+        User savedUser = saveChecked(user);
+        // Добавление в фильтр сразу: лишний адрес даст лишь ложное срабатывание и запрос к базе
+        emailIndex.add(savedUser.getEmail());
+        outboxWriter.record(AggregateType.USER, savedUser.getId(), OutboxEventType.CREATED);
+        // Мог быть закэширован ответ «не найден» для этого id
+        TransactionHooks.afterCommit(() -> entityFinder.evictUser(savedUser.getId()));
         UserDto savedDto = UserMapper.toUserDto(savedUser);
         return savedDto;
     }
 
     @Override
+    @Transactional
     public UserDto updateUser(Long id, UserDto userDto) {
         User oldUser = getUserOrThrow(id);
         String newName = userDto.getName();
+        boolean renamed = newName != null && !newName.equals(oldUser.getName());
         if (newName != null) {
             oldUser.setName(newName);
         }
 
         String newEmail = userDto.getEmail();
+        String oldEmail = oldUser.getEmail();
+        boolean emailChanged = newEmail != null && !Objects.equals(oldEmail, newEmail);
 
-        if (newEmail != null) {
-            String oldEmail = oldUser.getEmail();
-            if (!Objects.equals(oldEmail, newEmail)) {
-                validateEmailFormat(newEmail);
-                validateEmailUnique(newEmail);
-                oldUser.setEmail(newEmail);
-            }
+        if (emailChanged) {
+            EmailValidator.validateFormat(newEmail);
+            validateEmailUnique(newEmail);
+            oldUser.setEmail(newEmail);
         }
-        User saveUser = userRepository.save(oldUser);
+        User saveUser = saveChecked(oldUser);
+        if (emailChanged) {
+            emailIndex.add(newEmail);
+        }
+        outboxWriter.record(AggregateType.USER, id, OutboxEventType.UPDATED);
+        // Удалять адрес из фильтра можно только после фиксации: при откате он останется занят
+        TransactionHooks.afterCommit(() -> {
+            entityFinder.evictUser(id);
+            if (emailChanged) {
+                emailIndex.remove(oldEmail);
+            }
+            // Имя автора показывается в комментариях карточек и списков вещей
+            if (renamed) {
+                entityVersions.invalidate(EntityVersions.Kind.ITEM);
+                entityVersions.invalidate(EntityVersions.Kind.OWNER);
+            }
+        });
         UserDto updateUserDto = UserMapper.toUserDto(saveUser);
         return updateUserDto;
 
@@ -56,31 +100,65 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUser(Long id) {
-        User getById = getUserOrThrow(id);
-        UserDto findById = UserMapper.toUserDto(getById);
-        return findById;
+        return userRepository.findDtoById(id)
+                .orElseThrow(() -> {
+                    log.warn("Пользователь с id={} не найден", id);
+                    return new NotFoundException("Пользователя с таким id не существует");
+                });
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(Long afterId, int size) {
+        if (size <= 0) {
+            log.warn("Некорректный размер страницы: size={}", size);
+            throw new ValidationException("Параметр size должен быть больше 0");
+        }
+        long after = afterId == null ? 0L : afterId;
+        return userRepository.findDtosAfter(after, Limit.of(size));
     }
 
+    // Транзакция держит курсор открытым, пока action обрабатывает строки
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(UserMapper::toUserDto)
-                .toList();
+    public void forEachUser(Consumer<UserDto> action) {
+        try (Stream<UserDto> users = userRepository.streamAllDtos()) {
+            users.forEach(action);
+        }
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
-        getUserOrThrow(id);
+        User user = getUserOrThrow(id);
         userRepository.deleteById(id);
+        outboxWriter.record(AggregateType.USER, id, OutboxEventType.DELETED);
+        TransactionHooks.afterCommit(() -> {
+            entityFinder.evictUser(id);
+            emailIndex.remove(user.getEmail());
+        });
     }
 
+    // Запрос к базе - только если фильтр не исключает адрес; обычный случай свободного email обходится без него
     private void validateEmailUnique(String email) {
-        if (userRepository.existsByEmail(email)) {
+        if (emailIndex.mightContain(email) && userRepository.existsByEmail(email)) {
             log.warn("Пользователь с таким email={} уже существует", email);
             throw new EmailAlreadyExistsException("Пользователь с таким email уже существует");
         }
     }
 
+    // Проверка выше не защищает от параллельной регистрации того же адреса: её отсекает UQ_USER_EMAIL
+    private User saveChecked(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (!cause.toUpperCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            log.warn("Email={} занят параллельным запросом", user.getEmail());
+            throw new EmailAlreadyExistsException("Пользователь с таким email уже существует");
+        }
+    }
+
     private User getUserOrThrow(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> {
@@ -88,29 +166,4 @@ public class UserServiceImpl implements UserService {
                     return new NotFoundException("Пользователя с таким id не существует");
                 });
     }
-
-    private void validateEmailFormat(String email) {
-        if (email == null || email.isBlank()) {
-            log.warn("Передан пустой email");
-            throw new ValidationException("Email не может быть пустым");
-        }
-
-        if (email.contains(" ")) {
-            log.warn("В email={} есть пробелы", email);
-            throw new ValidationException("Email не должен содержать пробелов");
-        }
-
-        int atIndex = email.indexOf('@');
-        if (atIndex <= 0 || atIndex != email.lastIndexOf('@') || atIndex == email.length() - 1) {
-            log.warn("Передан некорректный email={} (проблема с '@')", email);
-            throw new ValidationException("Некорректный email");
-        }
-
-        String domainPart = email.substring(atIndex + 1);
-        int dotIndex = domainPart.lastIndexOf('.');
-        if (dotIndex <= 0 || dotIndex == domainPart.length() - 1) {
-            log.warn("Передан некорректный email={} (проблема с доменом)", email);
-            throw new ValidationException("Некорректный email");
-        }
-    }
 }
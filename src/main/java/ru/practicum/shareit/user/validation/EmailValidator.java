@@ -0,0 +1,36 @@
+package ru.practicum.shareit.user.validation;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.exception.ValidationException;
+
+@Slf4j
+public final class EmailValidator {
+
+    private EmailValidator() {
+    }
+
+    public static void validateFormat(String email) {
+        if (email == null || email.isBlank()) {
+            log.warn("Передан пустой email");
+            throw new ValidationException("Email не может быть пустым");
+        }
+
+        if (email.contains(" ")) {
+            log.warn("В email={} есть пробелы", email);
+            throw new ValidationException("Email не должен содержать пробелов");
+        }
+
+        int atIndex = email.indexOf('@');
+        if (atIndex <= 0 || atIndex != email.lastIndexOf('@') || atIndex == email.length() - 1) {
+            log.warn("Передан некорректный email={} (проблема с '@')", email);
+            throw new ValidationException("Некорректный email");
+        }
+
+        String domainPart = email.substring(atIndex + 1);
+        int dotIndex = domainPart.lastIndexOf('.');
+        if (dotIndex <= 0 || dotIndex == domainPart.length() - 1) {
+            log.warn("Передан некорректный email={} (проблема с доменом)", email);
+            throw new ValidationException("Некорректный email");
+        }
+    }
+}
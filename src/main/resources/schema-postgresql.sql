@@ -0,0 +1,33 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Выражение и условие должны совпадать с запросом ItemRepository.findAvailableIdsBySubstring
+CREATE INDEX IF NOT EXISTS idx_items_available_text_trgm ON items
+    USING gin (lower(name || ' ' || description) gin_trgm_ops) WHERE is_available;
+
+-- Базы, созданные до перехода на последовательности: identity снимается, последовательность сдвигается за max(id).
+-- Hibernate занимает 50 id ниже выданного значения, поэтому последовательность должна опережать max(id) на шаг.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+SELECT setval('users_seq', (SELECT max(id) FROM users) + 50)
+WHERE (SELECT max(id) FROM users) + 50 > (SELECT last_value FROM users_seq);
+
+ALTER TABLE item_requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE item_requests ALTER COLUMN id SET DEFAULT nextval('item_requests_seq');
+SELECT setval('item_requests_seq', (SELECT max(id) FROM item_requests) + 50)
+WHERE (SELECT max(id) FROM item_requests) + 50 > (SELECT last_value FROM item_requests_seq);
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+SELECT setval('items_seq', (SELECT max(id) FROM items) + 50)
+WHERE (SELECT max(id) FROM items) + 50 > (SELECT last_value FROM items_seq);
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+SELECT setval('bookings_seq', (SELECT max(id) FROM bookings) + 50)
+WHERE (SELECT max(id) FROM bookings) + 50 > (SELECT last_value FROM bookings_seq);
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+SELECT setval('comments_seq', (SELECT max(id) FROM comments) + 50)
+WHERE (SELECT max(id) FROM comments) + 50 > (SELECT last_value FROM comments_seq);
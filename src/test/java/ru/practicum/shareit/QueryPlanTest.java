@@ -0,0 +1,197 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.enums.BookingParticipant;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingFrontierRepository;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.common.OffsetPageRequest;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Перехватывает SQL, который Hibernate генерирует для методов репозиториев, и прогоняет его через EXPLAIN в H2.
+ * Тест падает, если какая-либо таблица читается полным сканированием или по индексу без условия на его первую колонку.
+ * Индексы, которые H2 сам создаёт под внешние ключи, засчитываются, только если в схеме объявлен индекс
+ * с той же первой колонкой: в Postgres внешние ключи не индексируются автоматически.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$CapturingInspector")
+class QueryPlanTest {
+    private static final List<String> CAPTURED = new ArrayList<>();
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\*\\s*PUBLIC\\.(\\S+?)(?::\\s*(.*?))?\\s*\\*/",
+            Pattern.DOTALL);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingFrontierRepository frontierRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private final Map<String, String> leadingColumns = new HashMap<>();
+    private final Set<String> declaredLeadingColumns = new HashSet<>();
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void loadIndexes() {
+        // Внешний ключ может переиспользовать индекс первичного ключа, такой индекс объявлен явно
+        List<String> foreignKeyIndexes = jdbcTemplate.queryForList("select INDEX_NAME "
+                + "from INFORMATION_SCHEMA.TABLE_CONSTRAINTS where CONSTRAINT_TYPE = 'FOREIGN KEY' "
+                + "and INDEX_NAME not in (select INDEX_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                + "where CONSTRAINT_TYPE in ('PRIMARY KEY', 'UNIQUE'))", String.class);
+        Map<String, String> foreignKeyColumns = new HashMap<>();
+        jdbcTemplate.query("select INDEX_NAME, TABLE_NAME, COLUMN_NAME from INFORMATION_SCHEMA.INDEX_COLUMNS "
+                        + "where TABLE_SCHEMA = 'PUBLIC' and ORDINAL_POSITION = 1",
+                rs -> {
+                    String tableColumn = rs.getString(2) + "." + rs.getString(3);
+                    if (foreignKeyIndexes.contains(rs.getString(1))) {
+                        foreignKeyColumns.put(rs.getString(1), tableColumn);
+                    } else {
+                        declaredLeadingColumns.add(tableColumn);
+                        leadingColumns.put(rs.getString(1), rs.getString(3));
+                    }
+                });
+        foreignKeyColumns.forEach((index, tableColumn) -> {
+            if (declaredLeadingColumns.contains(tableColumn)) {
+                leadingColumns.put(index, tableColumn.substring(tableColumn.indexOf('.') + 1));
+            }
+        });
+    }
+
+    @Test
+    void bookerQueriesUseIndexes() {
+        for (BookingState state : BookingState.values()) {
+            assertIndexed(() -> bookingRepository.findBookings(BookingParticipant.BOOKER, 1L, state, now, null, 20, 10));
+            assertIndexed(() -> bookingRepository.findBookings(BookingParticipant.BOOKER, 1L, state, now,
+                    new KeysetCursor(now, 100L), 0, 10));
+        }
+        assertIndexed(() -> bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                1L, 1L, BookingStatus.APPROVED, now));
+    }
+
+    @Test
+    void ownerQueriesUseIndexes() {
+        for (BookingState state : BookingState.values()) {
+            assertIndexed(() -> bookingRepository.findBookings(BookingParticipant.OWNER, 1L, state, now, null, 20, 10));
+            assertIndexed(() -> bookingRepository.findBookings(BookingParticipant.OWNER, 1L, state, now,
+                    new KeysetCursor(now, 100L), 0, 10));
+        }
+    }
+
+    @Test
+    void itemQueriesUseIndexes() {
+        assertIndexed(() -> bookingRepository.findViewById(1L));
+        assertIndexed(() -> bookingRepository.findWithItemById(1L));
+        assertIndexed(() -> bookingRepository.findLastBookings(List.of(1L, 2L), now, BookingStatus.APPROVED));
+        assertIndexed(() -> bookingRepository.findNextBookings(List.of(1L, 2L), now, BookingStatus.APPROVED));
+        assertIndexed(() -> bookingRepository.findEndingBookings(List.of(1L, 2L), now, BookingStatus.APPROVED));
+        assertIndexed(() -> frontierRepository.findAllById(List.of(1L, 2L)));
+        assertIndexed(() -> frontierRepository.findStaleItemIds(now, Limit.of(500)));
+        assertIndexed(() -> bookingRepository.findEarliestStart(BookingStatus.WAITING));
+        assertIndexed(() -> bookingRepository.findEarliestStartFrom(BookingStatus.WAITING, now));
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(status -> bookingRepository
+                .lockSlotsStartingBetween(BookingStatus.WAITING, now.minusHours(1), now, Limit.of(500))));
+        assertIndexed(() -> bookingRepository.findSlotsByStatusInAndEndAfter(
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now));
+        assertIndexed(() -> bookingRepository.existsOverlapping(1L, BookingStatus.APPROVED, now, now.plusDays(1), 1L));
+        assertIndexed(() -> itemRepository.findViewById(1L));
+        assertIndexed(() -> itemRepository.findViewsByOwnerIdAfter(1L, 0L, Limit.of(20)));
+        assertIndexed(() -> itemRepository.findDtosByIdIn(List.of(1L, 2L)));
+        assertIndexed(() -> itemRepository.findAvailableDtosAfter(0L, Limit.of(100)));
+        assertIndexed(() -> commentRepository.findLatestViewsByItemIdIn(List.of(1L, 2L), 10));
+        assertIndexed(() -> commentRepository.countByItemIdIn(List.of(1L, 2L)));
+        assertIndexed(() -> commentRepository.findViewsByItemId(1L, OffsetPageRequest.of(20, 10, Sort.unsorted())));
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        assertIndexed(() -> userRepository.findEmailsIn(List.of("a@shareit.ru", "b@shareit.ru")));
+        assertIndexed(() -> userRepository.findDtosAfter(0L, Limit.of(100)));
+    }
+
+    // Первая страница /requests/all - обход индекса по created без условия, в проверку не входит
+    @Test
+    void requestQueriesUseIndexes() {
+        assertIndexed(() -> itemRequestRepository.findViewById(1L));
+        assertIndexed(() -> itemRequestRepository.findViewsByRequesterId(1L, Limit.of(20)));
+        assertIndexed(() -> itemRequestRepository.findViewsByRequesterIdBefore(1L, now, 100L, Limit.of(20)));
+        assertIndexed(() -> itemRequestRepository.findViewsOfOthersBefore(1L, now, 100L, Limit.of(20)));
+        assertIndexed(() -> itemRepository.findAnswersByRequestIdIn(List.of(1L, 2L)));
+    }
+
+    private void assertIndexed(Runnable repositoryCall) {
+        List<String> statements;
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+            repositoryCall.run();
+            statements = List.copyOf(CAPTURED);
+        }
+        assertFalse(statements.isEmpty(), "Репозиторий не выполнил ни одного запроса");
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            Matcher matcher = TABLE_ACCESS.matcher(plan);
+            boolean accessFound = false;
+            while (matcher.find()) {
+                accessFound = true;
+                String access = matcher.group(1);
+                String condition = matcher.group(2);
+                if (access.endsWith(".tableScan")) {
+                    fail("Полное сканирование таблицы:\n" + plan);
+                }
+                String leadingColumn = leadingColumns.get(access);
+                if (leadingColumn == null || condition == null
+                        || !Pattern.compile("\\b" + leadingColumn + "\\b").matcher(condition).find()) {
+                    fail("Индекс " + access + " используется без условия на первую колонку:\n" + plan);
+                }
+            }
+            assertTrue(accessFound, "В плане не найден способ доступа к таблице:\n" + plan);
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            synchronized (CAPTURED) {
+                CAPTURED.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.frontier.BookingFrontierService;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Фиксирует число SQL-запросов на каждый читающий эндпоинт.
+ * Данных заведено несколько на каждую вещь, поэтому N+1 (догрузка связей по строкам) сразу меняет счётчик.
+ */
+// Фоновый ретранслятор outbox не должен попадать в счётчик: после первого прохода при старте он не запускается
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "shareit.outbox.interval=PT1H"})
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class ReadQueryCountTest {
+    private static final int ITEMS = 3;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestFixtures fixtures;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private BookingFrontierService bookingFrontierService;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = fixtures.saveUser("owner");
+        booker = fixtures.saveUser("booker");
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            item = saveItem(owner);
+            saveBooking(item, booker, now.minusDays(3), now.minusDays(2));
+            saveBooking(item, booker, now.minusDays(2), now.minusDays(1));
+            booking = saveBooking(item, booker, now.plusDays(1), now.plusDays(2));
+            saveBooking(item, booker, now.plusDays(2), now.plusDays(3));
+            saveComment(item, booker);
+            saveComment(item, booker);
+            // Бронирования заведены в обход сервиса - пересчёт, который сделало бы подтверждение
+            Long itemId = item.getId();
+            transactionTemplate.executeWithoutResult(status -> bookingFrontierService.refresh(itemId));
+        }
+    }
+
+    @Test
+    void bookingReads() throws Exception {
+        assertStatements(1, get("/bookings/{id}", booking.getId()).header(HeaderConstants.USER_ID, booker.getId()));
+        assertStatements(2, get("/bookings").header(HeaderConstants.USER_ID, booker.getId()));
+        // Повторная проверка пользователя обслуживается кэшем EntityFinder
+        assertStatements(1, get("/bookings").header(HeaderConstants.USER_ID, booker.getId()));
+        assertStatements(2, get("/bookings/owner").header(HeaderConstants.USER_ID, owner.getId()));
+    }
+
+    @Test
+    void itemReads() throws Exception {
+        assertStatements(4, get("/items/{id}", item.getId()).header(HeaderConstants.USER_ID, owner.getId()));
+        assertStatements(3, get("/items/{id}", item.getId()).header(HeaderConstants.USER_ID, booker.getId()));
+        // Первое обращение загружает владельца в кэш EntityFinder
+        assertStatements(5, get("/items").header(HeaderConstants.USER_ID, owner.getId()));
+        assertStatements(4, get("/items").param("size", "2").header(HeaderConstants.USER_ID, owner.getId()));
+        // Вещь уже в кэше EntityFinder: пересчёт при заведении данных искал её владельца для версий ETag
+        assertStatements(1, get("/items/{id}/comments", item.getId()).header(HeaderConstants.USER_ID, booker.getId()));
+        assertStatements(1, get("/items/{id}/comments", item.getId()).param("from", "1")
+                .header(HeaderConstants.USER_ID, booker.getId()));
+        assertStatements(1, get("/items/search").param("text", "item")
+                .header(HeaderConstants.USER_ID, owner.getId()));
+    }
+
+    @Test
+    void userReads() throws Exception {
+        assertStatements(1, get("/users/{id}", owner.getId()));
+        assertStatements(1, get("/users"));
+        assertStatements(1, get("/users").param("after", String.valueOf(owner.getId())).param("size", "2"));
+    }
+
+    @Test
+    void requestReads() throws Exception {
+        for (int i = 0; i < ITEMS; i++) {
+            ItemRequest request = saveRequest(booker);
+            for (int j = 0; j < 2; j++) {
+                Item answer = saveItem(owner);
+                answer.setRequest(request);
+                itemRepository.save(answer);
+            }
+        }
+        // Первое обращение загружает пользователя в кэш EntityFinder
+        assertStatements(3, get("/requests").header(HeaderConstants.USER_ID, booker.getId()));
+        assertStatements(2, get("/requests").param("size", "2").header(HeaderConstants.USER_ID, booker.getId()));
+        assertStatements(3, get("/requests/all").header(HeaderConstants.USER_ID, owner.getId()));
+    }
+
+    @Test
+    void conditionalReads() throws Exception {
+        assertNotModifiedWithoutStatements(get("/items/{id}", item.getId()).header(HeaderConstants.USER_ID, owner.getId()));
+        assertNotModifiedWithoutStatements(get("/items").header(HeaderConstants.USER_ID, owner.getId()));
+        assertNotModifiedWithoutStatements(get("/items").param("size", "2").header(HeaderConstants.USER_ID, owner.getId()));
+        assertNotModifiedWithoutStatements(get("/bookings/{id}", booking.getId())
+                .header(HeaderConstants.USER_ID, booker.getId()));
+    }
+
+    private void assertNotModifiedWithoutStatements(MockHttpServletRequestBuilder request) throws Exception {
+        String eTag = mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        statistics.clear();
+        mvc.perform(request.header("If-None-Match", eTag)).andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount(), () -> "SQL-запросы при 304: " + request);
+    }
+
+    private void assertStatements(long expected, RequestBuilder request) throws Exception {
+        statistics.clear();
+        mvc.perform(request).andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount(), () -> "Число SQL-запросов: " + request);
+    }
+
+    private Item saveItem(User itemOwner) {
+        Item savedItem = fixtures.saveItem(itemOwner);
+        itemSearchIndex.index(savedItem.getId(), savedItem.getName(), savedItem.getDescription(), true);
+        return savedItem;
+    }
+
+    private Booking saveBooking(Item bookedItem, User bookingUser, LocalDateTime start, LocalDateTime end) {
+        return fixtures.saveBooking(bookedItem, bookingUser, start, end, BookingStatus.APPROVED);
+    }
+
+    private ItemRequest saveRequest(User requester) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription("description");
+        request.setRequester(requester);
+        request.setCreated(LocalDateTime.now());
+        return itemRequestRepository.save(request);
+    }
+
+    private void saveComment(Item commentedItem, User author) {
+        Comment comment = new Comment();
+        comment.setItem(commentedItem);
+        comment.setAuthor(author);
+        comment.setText("text");
+        comment.setCreated(LocalDateTime.now());
+        commentRepository.save(comment);
+    }
+}
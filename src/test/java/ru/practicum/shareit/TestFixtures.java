@@ -0,0 +1,60 @@
+package ru.practicum.shareit;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Данные для тестов, записанные в обход сервисов: без событий outbox, индексов и проверок.
+ * Email пользователей уникальны, поэтому тесты не мешают друг другу в общей базе. Подключается через @Import.
+ */
+@TestComponent
+@AllArgsConstructor
+public class TestFixtures {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    public User saveUser(String name) {
+        return saveUser(name, name + "-" + UUID.randomUUID() + "@shareit.ru");
+    }
+
+    public User saveUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return userRepository.save(user);
+    }
+
+    public Item saveItem(User owner) {
+        return saveItem(owner, true);
+    }
+
+    public Item saveItem(User owner, boolean available) {
+        Item item = new Item();
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(available);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+
+    public Booking saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,229 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.EntityVersions;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Отмена бронирований, не подтверждённых до даты начала: статус CANCELED и событие outbox на каждое,
+ * восстановление отметки после перезапуска и пропуск строк, которые в этот момент подтверждает владелец.
+ * Каждый тест создаёт свой экземпляр сервиса: так он начинает обход с findEarliestStart, как после перезапуска.
+ */
+// Своя база и редкий запуск планировщиков: события outbox остаются в таблице, а бронирования отменяет только тест
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + BookingExpiryTest.DATABASE_URL,
+        "shareit.datasource.replica.url=" + BookingExpiryTest.DATABASE_URL,
+        "spring.jpa.properties.hibernate.dialect=ru.practicum.shareit.booking.expiry.BookingExpiryTest$SkipLockedH2Dialect",
+        "shareit.outbox.interval=PT1H",
+        "shareit.booking-expiry.interval=PT1H",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import(TestFixtures.class)
+class BookingExpiryTest {
+    static final String DATABASE_URL = "jdbc:h2:mem:shareit-expiry;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private OutboxWriter outboxWriter;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private EntityVersions entityVersions;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void seed() {
+        owner = fixtures.saveUser("owner");
+        booker = fixtures.saveUser("booker");
+        item = fixtures.saveItem(owner);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void sweepCancelsWaitingBookingsThatHaveStarted() {
+        // Начала в разных интервалах обхода, пачки по две строки
+        List<Long> started = List.of(
+                saveBooking(now.minusDays(3), BookingStatus.WAITING).getId(),
+                saveBooking(now.minusHours(5), BookingStatus.WAITING).getId(),
+                saveBooking(now.minusHours(5).plusMinutes(1), BookingStatus.WAITING).getId(),
+                saveBooking(now.minusHours(5).plusMinutes(2), BookingStatus.WAITING).getId(),
+                saveBooking(now.minusMinutes(1), BookingStatus.WAITING).getId());
+        Long future = saveBooking(now.plusHours(1), BookingStatus.WAITING).getId();
+        Long approved = saveBooking(now.minusHours(2), BookingStatus.APPROVED).getId();
+
+        newExpiryService(2).expireWaiting();
+
+        bookingRepository.findAllById(started)
+                .forEach(booking -> assertEquals(BookingStatus.CANCELED, booking.getStatus()));
+        assertEquals(BookingStatus.WAITING, status(future));
+        assertEquals(BookingStatus.APPROVED, status(approved));
+        started.forEach(id -> assertEquals(1, updatedEvents(id)));
+        assertEquals(0, updatedEvents(future));
+        assertEquals(0, updatedEvents(approved));
+    }
+
+    @Test
+    void emptyBucketsAreSkipped() {
+        Long monthOld = saveBooking(now.minusDays(30), BookingStatus.WAITING).getId();
+        Long weekOld = saveBooking(now.minusDays(7), BookingStatus.WAITING).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        newExpiryService(500).expireWaiting();
+
+        assertEquals(BookingStatus.CANCELED, status(monthOld));
+        assertEquals(BookingStatus.CANCELED, status(weekOld));
+        // По интервалу в час от месячной давности было бы больше 700 запросов
+        assertTrue(statistics.getPrepareStatementCount() < 30, () -> statistics.getPrepareStatementCount() + "");
+    }
+
+    @Test
+    void restartedServiceResumesFromEarliestWaiting() {
+        BookingExpiryService running = newExpiryService(500);
+        running.expireWaiting();
+        // Строка старше отметки работающего сервиса: он повторно смотрит только конец прошлого интервала
+        Long stale = saveBooking(now.minusDays(2), BookingStatus.WAITING).getId();
+
+        running.expireWaiting();
+        assertEquals(BookingStatus.WAITING, status(stale));
+
+        newExpiryService(500).expireWaiting();
+        assertEquals(BookingStatus.CANCELED, status(stale));
+        assertEquals(1, updatedEvents(stale));
+    }
+
+    @Test
+    void bookingLockedByApprovalIsSkipped() throws Exception {
+        Long approving = saveBooking(now.minusHours(1), BookingStatus.WAITING).getId();
+        Long expiring = saveBooking(now.minusHours(1).plusMinutes(1), BookingStatus.WAITING).getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Подтверждение держит блокировку строки до фиксации внешней транзакции
+            Future<?> approval = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                bookingService.updateBookingApproval(owner.getId(), approving, true);
+                locked.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(30, TimeUnit.SECONDS));
+
+            newExpiryService(500).expireWaiting();
+            // Проход не ждал блокировки: подтверждение всё ещё не зафиксировано
+            assertFalse(approval.isDone());
+
+            release.countDown();
+            approval.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(BookingStatus.APPROVED, status(approving));
+        assertEquals(BookingStatus.CANCELED, status(expiring));
+        // Одно событие - от подтверждения, отмены не было
+        assertEquals(1, updatedEvents(approving));
+        assertEquals(1, updatedEvents(expiring));
+    }
+
+    /**
+     * H2 умеет SKIP LOCKED, но H2Dialect его не выводит и ждёт блокировку, как обычный FOR UPDATE.
+     * В PostgreSQL пропуск заблокированных строк выводит штатный диалект.
+     */
+    public static class SkipLockedH2Dialect extends H2Dialect {
+
+        @Override
+        public boolean supportsSkipLocked() {
+            return true;
+        }
+
+        @Override
+        public String getForUpdateSkipLockedString() {
+            return getForUpdateString() + " skip locked";
+        }
+
+        @Override
+        public String getForUpdateSkipLockedString(String aliases) {
+            return getForUpdateString(aliases) + " skip locked";
+        }
+    }
+
+    private BookingExpiryService newExpiryService(int batchSize) {
+        return new BookingExpiryService(bookingRepository, bookingIntervalIndex,
+                new BookingExpiryProperties(batchSize, Duration.ofHours(1)),
+                outboxWriter, entityVersions, transactionManager, meterRegistry);
+    }
+
+    private BookingStatus status(Long bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getStatus();
+    }
+
+    private long updatedEvents(Long bookingId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateType() == AggregateType.BOOKING)
+                .filter(event -> event.getAggregateId().equals(bookingId))
+                .map(OutboxEvent::getEventType)
+                .filter(type -> type == OutboxEventType.UPDATED)
+                .count();
+    }
+
+    private Booking saveBooking(LocalDateTime start, BookingStatus status) {
+        return fixtures.saveBooking(item, booker, start, start.plusHours(1), status);
+    }
+}
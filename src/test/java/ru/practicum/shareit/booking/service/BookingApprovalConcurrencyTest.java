@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Параллельные подтверждения бронирований: статус меняется ровно одним запросом,
+ * а из пересекающихся бронирований одной вещи подтверждается только одно.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+class BookingApprovalConcurrencyTest {
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void seed() {
+        owner = fixtures.saveUser("owner");
+        booker = fixtures.saveUser("booker");
+        item = fixtures.saveItem(owner);
+    }
+
+    @Test
+    void statusChangesOnce() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = saveWaiting(start, start.plusDays(1)).getId();
+
+        List<Outcome> outcomes = runConcurrently(THREADS, i -> () -> {
+            bookingService.updateBookingApproval(owner.getId(), bookingId, i % 2 == 0);
+            return null;
+        });
+
+        assertEquals(1, outcomes.stream().filter(outcome -> outcome == Outcome.APPLIED).count());
+        assertEquals(0, outcomes.stream().filter(outcome -> outcome == Outcome.FAILED).count());
+    }
+
+    @Test
+    void overlappingBookingsApprovedOnce() throws Exception {
+        // В обход сервиса: индекс интервалов не дал бы создать пересекающиеся бронирования
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(saveWaiting(start.plusMinutes(i), start.plusDays(1).plusMinutes(i)).getId());
+        }
+
+        List<Outcome> outcomes = runConcurrently(THREADS, i -> () -> {
+            bookingService.updateBookingApproval(owner.getId(), bookingIds.get(i), true);
+            return null;
+        });
+
+        assertEquals(1, outcomes.stream().filter(outcome -> outcome == Outcome.APPLIED).count());
+        assertEquals(0, outcomes.stream().filter(outcome -> outcome == Outcome.FAILED).count());
+        assertEquals(1, bookingRepository.findAllById(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+
+    private List<Outcome> runConcurrently(int threads, TaskFactory tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Void> task = tasks.create(i);
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    try {
+                        task.call();
+                        return Outcome.APPLIED;
+                    } catch (ConflictException | ValidationException e) {
+                        return Outcome.REJECTED;
+                    } catch (RuntimeException e) {
+                        return Outcome.FAILED;
+                    }
+                }));
+            }
+            startSignal.countDown();
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking saveWaiting(LocalDateTime start, LocalDateTime end) {
+        return fixtures.saveBooking(item, booker, start, end, BookingStatus.WAITING);
+    }
+
+    private enum Outcome {
+        APPLIED, REJECTED, FAILED
+    }
+
+    @FunctionalInterface
+    private interface TaskFactory {
+        Callable<Void> create(int index);
+    }
+}
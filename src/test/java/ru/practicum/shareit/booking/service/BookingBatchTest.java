@@ -0,0 +1,191 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пакетное бронирование: позиции проверяются независимо, пересечения ищутся и с индексом, и внутри пакета,
+ * а интервалы, занятые в индексе, освобождаются, если запись пакета не зафиксирована.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+class BookingBatchTest {
+    private static final int MAX_BATCH_SIZE = 100;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Item otherItem;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void seed() {
+        owner = fixtures.saveUser("owner");
+        booker = fixtures.saveUser("booker");
+        item = fixtures.saveItem(owner);
+        otherItem = fixtures.saveItem(owner);
+        base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void mixedBatchCreatesOnlyValidEntries() {
+        Item unavailable = fixtures.saveItem(owner, false);
+        List<BookingRequestDto> batch = List.of(
+                request(item, base, base.plusDays(2)),
+                // Пересекается с позицией 0 того же пакета
+                request(item, base.plusDays(1), base.plusDays(3)),
+                request(otherItem, base.plusDays(2), base.plusDays(1)),
+                request(unavailable, base, base.plusDays(1)),
+                request(Long.MAX_VALUE, base, base.plusDays(1)),
+                request(otherItem, base, base.plusDays(1)),
+                // Та же вещь сразу после позиции 0: интервалы не пересекаются
+                request(item, base.plusDays(2), base.plusDays(4))
+        );
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(booker.getId(), batch);
+
+        assertEquals(batch.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertCreated(results.get(0));
+        assertEquals("Вещь уже забронирована на указанный период", results.get(1).getError());
+        assertEquals("Дата начала бронирования должна быть раньше окончания", results.get(2).getError());
+        assertEquals("Вещь недоступна для бронирования", results.get(3).getError());
+        assertEquals("Вещь не найдена", results.get(4).getError());
+        assertCreated(results.get(5));
+        assertCreated(results.get(6));
+
+        assertEquals(2, bookingsOf(item).size());
+        assertEquals(1, bookingsOf(otherItem).size());
+        assertFalse(bookingIntervalIndex.isFree(item.getId(), base.plusHours(1), base.plusHours(2)));
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), base.plusDays(5), base.plusDays(6)));
+    }
+
+    @Test
+    void batchSizeIsCapped() {
+        List<BookingRequestDto> full = new ArrayList<>();
+        for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+            full.add(request(item, base.plusHours(i), base.plusHours(i + 1)));
+        }
+        List<BookingRequestDto> tooLarge = new ArrayList<>(full);
+        tooLarge.add(request(otherItem, base, base.plusHours(1)));
+
+        assertThrows(ValidationException.class, () -> bookingService.createBookings(booker.getId(), tooLarge));
+        assertThrows(ValidationException.class, () -> bookingService.createBookings(booker.getId(), List.of()));
+        assertTrue(bookingsOf(item).isEmpty());
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(booker.getId(), full);
+        assertTrue(results.stream().allMatch(result -> result.getError() == null));
+        assertEquals(MAX_BATCH_SIZE, bookingsOf(item).size());
+    }
+
+    @Test
+    void failedSaveReleasesReservedIntervals() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Booking> bookings = List.of(
+                booking(item, base, base.plusDays(1)),
+                booking(otherItem, base, base.plusDays(1)));
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status ->
+                bookingIntervalIndex.reserveAll(bookings, accepted -> {
+                    throw new IllegalStateException("saveAll failed");
+                })));
+
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), base, base.plusDays(1)));
+        assertTrue(bookingIntervalIndex.isFree(otherItem.getId(), base, base.plusDays(1)));
+    }
+
+    @Test
+    void rolledBackSaveReleasesReservedIntervals() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Booking> bookings = List.of(
+                booking(item, base, base.plusDays(1)),
+                booking(otherItem, base, base.plusDays(1)));
+
+        transaction.executeWithoutResult(status -> {
+            List<Booking> saved = bookingIntervalIndex.reserveAll(bookings, bookingRepository::saveAll);
+            saved.forEach(booking -> assertNotNull(booking.getId()));
+            // Пока транзакция не завершена, интервалы заняты
+            assertFalse(bookingIntervalIndex.isFree(item.getId(), base, base.plusDays(1)));
+            status.setRollbackOnly();
+        });
+
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), base, base.plusDays(1)));
+        assertTrue(bookingIntervalIndex.isFree(otherItem.getId(), base, base.plusDays(1)));
+        assertTrue(bookingsOf(item).isEmpty());
+        assertTrue(bookingsOf(otherItem).isEmpty());
+    }
+
+    private void assertCreated(BookingBatchResultDto result) {
+        assertNull(result.getError(), result::getError);
+        assertNotNull(result.getBooking());
+        assertEquals(BookingStatus.WAITING, result.getBooking().getStatus());
+    }
+
+    private List<Booking> bookingsOf(Item bookedItem) {
+        return bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(bookedItem.getId()))
+                .toList();
+    }
+
+    private static BookingRequestDto request(Item bookedItem, LocalDateTime start, LocalDateTime end) {
+        return request(bookedItem.getId(), start, end);
+    }
+
+    private static BookingRequestDto request(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingRequestDto request = new BookingRequestDto();
+        request.setItemId(itemId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+
+    private Booking booking(Item bookedItem, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(bookedItem);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.WAITING);
+        return booking;
+    }
+}
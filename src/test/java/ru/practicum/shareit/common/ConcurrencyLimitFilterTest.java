@@ -0,0 +1,68 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.user.model.User;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Лимит в одно место: выгрузка NDJSON занимает его до завершения асинхронного запроса, подписка SSE - нет.
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "shareit.concurrency-limit.max-concurrent-requests=1",
+        "shareit.concurrency-limit.acquire-timeout=100ms"})
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class ConcurrencyLimitFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        user = fixtures.saveUser("user");
+    }
+
+    @Test
+    void streamingResponseHoldsPermitUntilAsyncCompletes() throws Exception {
+        MvcResult stream = mvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Тело выгрузки ещё пишется (асинхронный запрос не завершён): место занято
+        mvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isServiceUnavailable());
+
+        mvc.perform(asyncDispatch(stream))
+                .andExpect(status().isOk());
+        mvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void eventStreamReleasesPermitImmediately() throws Exception {
+        mvc.perform(get("/notifications").header(HeaderConstants.USER_ID, user.getId()))
+                .andExpect(request().asyncStarted());
+
+        mvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk());
+    }
+}
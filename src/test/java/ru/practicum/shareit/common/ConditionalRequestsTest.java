@@ -0,0 +1,98 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.importing.dto.ImportJobDto;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportStatus;
+import ru.practicum.shareit.importing.enums.ImportType;
+import ru.practicum.shareit.importing.service.ImportService;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 304 отдаётся только на ETag, который уже выдавался с ответом 200, и только пока он соответствует данным.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class ConditionalRequestsTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityVersions entityVersions;
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void importChangesOwnerListVersion() throws Exception {
+        User owner = fixtures.saveUser("user");
+        String eTag = mvc.perform(get("/items").header(HeaderConstants.USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(get("/items").header(HeaderConstants.USER_ID, owner.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        awaitImport(importService.submit(ImportType.ITEMS, ImportFormat.NDJSON, owner.getId(),
+                new ByteArrayInputStream("{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n"
+                        .getBytes(StandardCharsets.UTF_8))));
+
+        mvc.perform(get("/items").header(HeaderConstants.USER_ID, owner.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Дрель"));
+    }
+
+    @Test
+    void wildcardDoesNotSkipNotFound() throws Exception {
+        User user = fixtures.saveUser("user");
+        mvc.perform(get("/items/{id}", Long.MAX_VALUE).header(HeaderConstants.USER_ID, user.getId())
+                        .header("If-None-Match", "*"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void tagNeverServedDoesNotSkipChecks() throws Exception {
+        User user = fixtures.saveUser("user");
+        // Тег совпадает с текущей версией, но с ответом 200 его никто не получал
+        String itemTag = entityVersions.eTag(EntityVersions.Kind.ITEM, Long.MAX_VALUE, user.getId());
+        mvc.perform(get("/items/{id}", Long.MAX_VALUE).header(HeaderConstants.USER_ID, user.getId())
+                        .header("If-None-Match", itemTag))
+                .andExpect(status().isNotFound());
+        String bookingTag = entityVersions.eTag(EntityVersions.Kind.BOOKING, Long.MAX_VALUE, user.getId());
+        mvc.perform(get("/bookings/{id}", Long.MAX_VALUE).header(HeaderConstants.USER_ID, user.getId())
+                        .header("If-None-Match", bookingTag))
+                .andExpect(status().isNotFound());
+    }
+
+    private void awaitImport(ImportJobDto submitted) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        ImportJobDto job = importService.getJob(submitted.getId());
+        while ((job.getStatus() == ImportStatus.QUEUED || job.getStatus() == ImportStatus.RUNNING)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = importService.getJob(submitted.getId());
+        }
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getImported());
+    }
+}
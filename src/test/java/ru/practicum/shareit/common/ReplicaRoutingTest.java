@@ -0,0 +1,75 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Реплика - отдельная пустая база с той же схемой: так выглядит реплика, отставшая от основной.
+ * Что видно только в основной базе, прочитано из основной, и наоборот.
+ */
+@SpringBootTest(properties = "shareit.datasource.replica.url="
+        + "jdbc:h2:mem:shareit-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'")
+class ReplicaRoutingTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private EntityFinder entityFinder;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        UserDto user = userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@mail.ru"));
+
+        assertTrue(readWrite(() -> userRepository.existsById(user.getId())));
+        assertFalse(readOnly(() -> userRepository.existsById(user.getId())));
+        // Читающие методы сервисов помечены readOnly и тоже идут на реплику
+        assertThrows(NotFoundException.class, () -> userService.getUser(user.getId()));
+    }
+
+    @Test
+    void cacheMissesAreLoadedFromPrimary() {
+        UserDto owner = userService.createUser(new UserDto(null, "owner", UUID.randomUUID() + "@mail.ru"));
+        ItemDto item = itemService.createItem(owner.getId(), new ItemDto(null, "Дрель", "description", true, null));
+
+        // Сразу после создания: на реплике строк ещё нет, но в кэш попадают сущности из основной базы
+        assertEquals("owner", readOnly(() -> entityFinder.getUserOrThrow(owner.getId()).getName()));
+        assertEquals("Дрель", readOnly(() -> entityFinder.getItemOrThrow(item.getId()).getName()));
+
+        // После изменения evict, и следующее чтение снова идёт в основную базу, а не за старой копией
+        itemService.updateItem(owner.getId(), item.getId(), new ItemDto(null, "Перфоратор", null, null, null));
+        assertEquals("Перфоратор", readOnly(() -> entityFinder.getItemOrThrow(item.getId()).getName()));
+    }
+
+    private <T> T readOnly(Supplier<T> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> action.get());
+    }
+
+    private <T> T readWrite(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.importing.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvLineParserTest {
+
+    @Test
+    void splitsOnCommas() {
+        assertEquals(List.of("Дрель", "Ударная", "true"), CsvLineParser.parse("Дрель,Ударная,true"));
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertEquals(List.of("", "b", ""), CsvLineParser.parse(",b,"));
+        assertEquals(List.of(""), CsvLineParser.parse(""));
+    }
+
+    @Test
+    void quotedFieldMayContainCommasAndEscapedQuotes() {
+        assertEquals(List.of("Петров, Иван", "petrov@mail.ru"), CsvLineParser.parse("\"Петров, Иван\",petrov@mail.ru"));
+        assertEquals(List.of("Дрель \"Макита\"", "x"), CsvLineParser.parse("\"Дрель \"\"Макита\"\"\",x"));
+        assertEquals(List.of(""), CsvLineParser.parse("\"\""));
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() {
+        assertEquals(List.of("дюйм 1\"", "x"), CsvLineParser.parse("дюйм 1\",x"));
+    }
+
+    @Test
+    void keepsSpacesAroundFields() {
+        assertEquals(List.of(" a ", " b"), CsvLineParser.parse(" a , b"));
+    }
+
+    @Test
+    void rejectsUnclosedQuote() {
+        assertThrows(ValidationException.class, () -> CsvLineParser.parse("\"Петров, Иван,petrov@mail.ru"));
+    }
+}
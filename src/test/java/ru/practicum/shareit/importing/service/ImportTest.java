@@ -0,0 +1,123 @@
+package ru.practicum.shareit.importing.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.importing.dto.ImportErrorDto;
+import ru.practicum.shareit.importing.dto.ImportJobDto;
+import ru.practicum.shareit.importing.enums.ImportFormat;
+import ru.practicum.shareit.importing.enums.ImportStatus;
+import ru.practicum.shareit.importing.enums.ImportType;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Импорт файла целиком: принятые строки записываются, остальные отклоняются с номером строки файла.
+ */
+// Своя база: события outbox из неё разбирает только ретранслятор этого контекста, а не закэшированных контекстов
+// других тестов со своими поисковыми индексами
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ImportTest.DATABASE_URL,
+        "shareit.datasource.replica.url=" + ImportTest.DATABASE_URL})
+@Import(TestFixtures.class)
+class ImportTest {
+    static final String DATABASE_URL = "jdbc:h2:mem:shareit-import;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void importsUsersRejectingDuplicatesAndMalformedRows() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        // Пользователь записан в обход сервиса, поэтому EmailIndex его не знает и конфликт обнаруживает база
+        User existing = fixtures.saveUser("existing", "existing-" + suffix + "@mail.ru");
+        String csv = "name,email\n"
+                + "Анна,anna-" + suffix + "@mail.ru\n"
+                + "\"Петров, Иван\",ivan-" + suffix + "@mail.ru\n"
+                + "Дубль," + existing.getEmail() + "\n"
+                + "Пётр,\"petr-" + suffix + "@mail.ru\n"
+                + "Без почты,not-an-email\n"
+                + "Анна снова,anna-" + suffix + "@mail.ru\n";
+
+        ImportJobDto job = awaitImport(importService.submit(ImportType.USERS, ImportFormat.CSV, null, content(csv)));
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(6, job.getProcessed());
+        assertEquals(2, job.getImported());
+        assertEquals(4, job.getRejected());
+        Map<Long, String> errors = job.getErrors().stream()
+                .collect(Collectors.toMap(ImportErrorDto::getLine, ImportErrorDto::getMessage));
+        assertEquals("Пользователь с таким email уже существует", errors.get(4L));
+        assertEquals("Незакрытая кавычка в строке CSV", errors.get(5L));
+        assertTrue(errors.containsKey(6L), errors::toString);
+        assertEquals("Email уже встречался в файле", errors.get(7L));
+        Map<String, String> imported = userRepository.findAll().stream()
+                .filter(user -> user.getEmail().endsWith(suffix + "@mail.ru") && user.getId() > existing.getId())
+                .collect(Collectors.toMap(User::getEmail, User::getName));
+        assertEquals(Map.of("anna-" + suffix + "@mail.ru", "Анна", "ivan-" + suffix + "@mail.ru", "Петров, Иван"),
+                imported);
+    }
+
+    @Test
+    void importedItemsReachSearchThroughOutbox() throws Exception {
+        User owner = fixtures.saveUser("owner");
+        String word = "импорт" + UUID.randomUUID().toString().replaceAll("[^0-9]", "");
+        String ndjson = "{\"name\":\"Дрель " + word + "\",\"description\":\"Ударная\",\"available\":true}\n"
+                + "{\"name\":\"Без описания\",\"available\":true}\n"
+                + "[1, 2]\n";
+
+        ImportJobDto job = awaitImport(importService.submit(ImportType.ITEMS, ImportFormat.NDJSON, owner.getId(),
+                content(ndjson)));
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getImported());
+        assertEquals(List.of(2L, 3L), job.getErrors().stream().map(ImportErrorDto::getLine).sorted().toList());
+        // Индекс обновляет ретранслятор outbox, как и для вещей, созданных через API
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        List<Long> found = itemSearchIndex.search(word, 0, 10);
+        while (found.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            found = itemSearchIndex.search(word, 0, 10);
+        }
+        assertEquals(1, found.size());
+        assertEquals(owner.getId(), itemRepository.findById(found.get(0)).orElseThrow().getOwner().getId());
+    }
+
+    private ImportJobDto awaitImport(ImportJobDto submitted) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        ImportJobDto job = importService.getJob(submitted.getId());
+        while ((job.getStatus() == ImportStatus.QUEUED || job.getStatus() == ImportStatus.RUNNING)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = importService.getJob(submitted.getId());
+        }
+        return job;
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        index.index(1L, "Палатка", "Берите дрель у соседа", true);
+        index.index(2L, "Дрель", "Аккумуляторная", true);
+        index.index(3L, "Перфоратор", "Работает как дрель, дрель и отвёртка", true);
+
+        // 2 - в названии (вес 2), 3 - дважды в описании (2), 1 - однажды в описании (1); при равенстве - по id
+        assertEquals(List.of(2L, 3L, 1L), index.search("дрели", 0, 10));
+        assertEquals(List.of(3L), index.search("дрели", 1, 1));
+    }
+
+    @Test
+    void largePageBoundsDoNotOverflow() {
+        index.index(1L, "Дрель", "", true);
+        index.index(2L, "Дрель", "ударная", true);
+
+        assertEquals(List.of(2L), index.search("дрель", 1, Integer.MAX_VALUE));
+        assertEquals(List.of(), index.search("дрель", Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rareTermsWeighMore() {
+        index.index(1L, "Ударная", "дрель", true);
+        index.index(2L, "Дрель", "ударная", true);
+        index.index(3L, "Ударная установка", "", true);
+        index.index(4L, "Ударная палатка", "", true);
+
+        // «дрель» реже «ударная», поэтому её вхождение в название весит больше
+        assertEquals(List.of(2L, 1L), index.search("ударная дрель", 0, 10));
+    }
+
+    @Test
+    void requiresAllTerms() {
+        index.index(1L, "Дрель", "аккумуляторная", true);
+        index.index(2L, "Дрель", "сетевая", true);
+
+        assertEquals(List.of(1L), index.search("дрель аккумуляторная", 0, 10));
+        assertEquals(List.of(), index.search("дрель бензиновая", 0, 10));
+    }
+
+    @Test
+    void matchesYoAsYe() {
+        index.index(1L, "Ёлка искусственная", "", true);
+
+        assertEquals(List.of(1L), index.search("елки", 0, 10));
+    }
+
+    @Test
+    void availabilityToggleRemovesAndRestoresItem() {
+        index.index(1L, "Дрель", "", true);
+        index.index(1L, "Дрель", "", false);
+        assertEquals(List.of(), index.search("дрель", 0, 10));
+        assertEquals(0, index.size());
+
+        index.index(1L, "Дрель", "", true);
+        assertEquals(List.of(1L), index.search("дрель", 0, 10));
+    }
+
+    @Test
+    void reindexingOnRenameDropsOldTerms() {
+        index.index(1L, "Дрель", "инструмент", true);
+        index.index(1L, "Пила", "инструмент", true);
+
+        assertEquals(List.of(), index.search("дрель", 0, 10));
+        assertEquals(List.of(1L), index.search("пила", 0, 10));
+        assertEquals(List.of(1L), index.search("инструмент", 0, 10));
+        assertEquals(1, index.size());
+    }
+}
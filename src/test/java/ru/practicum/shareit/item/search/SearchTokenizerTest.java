@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchTokenizerTest {
+
+    @Test
+    void normalizesCaseAndYo() {
+        assertEquals(SearchTokenizer.terms("ЁЛКА"), SearchTokenizer.terms("елка"));
+        assertEquals(SearchTokenizer.terms("Ёлки"), SearchTokenizer.terms("ЕЛКИ"));
+    }
+
+    @Test
+    void stemsRussianAndEnglishEndings() {
+        assertEquals(SearchTokenizer.terms("дрель"), SearchTokenizer.terms("дрели"));
+        assertEquals(SearchTokenizer.terms("аккумуляторная"), SearchTokenizer.terms("аккумуляторной"));
+        assertEquals(SearchTokenizer.terms("drill"), SearchTokenizer.terms("drills"));
+        assertEquals(List.of("drill"), SearchTokenizer.terms("drilling"));
+    }
+
+    @Test
+    void keepsShortStems() {
+        // Окончание не отсекается, если от слова останется меньше трёх букв
+        assertEquals(List.of("эта"), SearchTokenizer.terms("эта"));
+        assertEquals(List.of("bus"), SearchTokenizer.terms("bus"));
+    }
+
+    @Test
+    void splitsOnNonWordCharactersAndDropsSingleLetters() {
+        assertEquals(List.of("дрел", "шуруповерт"), SearchTokenizer.terms("дрель-шуруповерт"));
+        assertEquals(List.of("x5", "pro"), SearchTokenizer.terms("x5 / pro, a"));
+        assertEquals(List.of(), SearchTokenizer.terms(null));
+        assertEquals(List.of(), SearchTokenizer.terms("  ,.  "));
+    }
+}
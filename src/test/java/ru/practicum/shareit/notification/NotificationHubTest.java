@@ -0,0 +1,87 @@
+package ru.practicum.shareit.notification;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.constants.HeaderConstants;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Каждый подписчик получает ровно свои кадры SSE, целиком и по порядку, сколько бы подписчиков ни было у события.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class NotificationHubTest {
+    private static final String PING = ":ping\n\n";
+    private static final Pattern FIRST_ID = Pattern.compile("^id:(\\d+)\n");
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private NotificationHub notificationHub;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void everySubscriberReceivesExactFrames() throws Exception {
+        User owner = fixtures.saveUser("owner");
+        User other = fixtures.saveUser("other");
+        MockHttpServletResponse ownerFirst = subscribe(owner);
+        MockHttpServletResponse ownerSecond = subscribe(owner);
+        MockHttpServletResponse otherOnly = subscribe(other);
+
+        notificationHub.publish(NotificationEvent.toUser(NotificationType.BOOKING_CREATED, owner.getId(),
+                Map.of("n", 1)));
+        notificationHub.publish(NotificationEvent.broadcast(NotificationType.ITEM_REQUEST_CREATED, other.getId(),
+                Map.of("n", 2)));
+        notificationHub.publish(NotificationEvent.broadcast(NotificationType.ITEM_REQUEST_CREATED, owner.getId(),
+                Map.of("n", 3)));
+        notificationHub.heartbeat();
+
+        String ownerFrames = awaitFrames(ownerFirst);
+        Matcher firstId = FIRST_ID.matcher(ownerFrames);
+        assertTrue(firstId.find(), ownerFrames);
+        long id = Long.parseLong(firstId.group(1));
+
+        String expectedOwner = "id:" + id + "\nevent:BOOKING_CREATED\ndata:{\"n\":1}\n\n"
+                + "id:" + (id + 1) + "\nevent:ITEM_REQUEST_CREATED\ndata:{\"n\":2}\n\n"
+                + PING;
+        assertEquals(expectedOwner, ownerFrames);
+        assertEquals(expectedOwner, awaitFrames(ownerSecond));
+        assertEquals("id:" + (id + 2) + "\nevent:ITEM_REQUEST_CREATED\ndata:{\"n\":3}\n\n" + PING,
+                awaitFrames(otherOnly));
+    }
+
+    private MockHttpServletResponse subscribe(User user) throws Exception {
+        return mvc.perform(get("/notifications").header(HeaderConstants.USER_ID, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    // Кадры пишутся в ответ из потоков рассылки; heartbeat - последний кадр каждого подписчика
+    private String awaitFrames(MockHttpServletResponse response) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = response.getContentAsString();
+        while (!content.endsWith(PING) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.enums.AggregateType;
+import ru.practicum.shareit.outbox.enums.OutboxEventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ретранслятор outbox: пачки идут в порядке id и удаляются после доставки, а пачка, на которой упал
+ * получатель, остаётся в таблице и приходит всем получателям снова.
+ */
+// Своя база и редкий запуск планировщика: события разбирает только ретранслятор, созданный тестом
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + OutboxRelayTest.DATABASE_URL,
+        "shareit.datasource.replica.url=" + OutboxRelayTest.DATABASE_URL,
+        "shareit.outbox.interval=PT1H"})
+class OutboxRelayTest {
+    static final String DATABASE_URL = "jdbc:h2:mem:shareit-outbox;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clear() {
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void failedBatchIsRedeliveredToAllConsumers() {
+        List<Long> aggregateIds = record(3);
+        List<List<Long>> received = new ArrayList<>();
+        AtomicInteger attempts = new AtomicInteger();
+        OutboxConsumer recording = events -> received.add(aggregateIds(events));
+        OutboxConsumer failingOnce = events -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("consumer failed");
+            }
+        };
+        OutboxRelay relay = newRelay(500, recording, failingOnce);
+
+        relay.relay();
+
+        assertEquals(List.of(aggregateIds), received);
+        assertEquals(3, outboxEventRepository.count());
+
+        relay.relay();
+
+        // Первый получатель видит пачку второй раз: доставка «хотя бы один раз»
+        assertEquals(List.of(aggregateIds, aggregateIds), received);
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void deliversInIdOrderAndDeletesEachBatch() {
+        List<Long> aggregateIds = record(5);
+        List<List<Long>> received = new ArrayList<>();
+        List<Long> remaining = new ArrayList<>();
+        OutboxConsumer recording = events -> {
+            received.add(aggregateIds(events));
+            // Та же транзакция: уже доставленные пачки удалены, текущая ещё нет
+            remaining.add(outboxEventRepository.count());
+        };
+
+        newRelay(2, recording).relay();
+
+        assertEquals(List.of(aggregateIds.subList(0, 2), aggregateIds.subList(2, 4), aggregateIds.subList(4, 5)),
+                received);
+        assertEquals(List.of(5L, 3L, 1L), remaining);
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    private List<Long> record(int count) {
+        List<Long> aggregateIds = LongStream.rangeClosed(1, count).boxed().toList();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                aggregateIds.forEach(id -> outboxWriter.record(AggregateType.ITEM, id, OutboxEventType.UPDATED)));
+        return aggregateIds;
+    }
+
+    private OutboxRelay newRelay(int batchSize, OutboxConsumer... consumers) {
+        return new OutboxRelay(outboxEventRepository, List.of(consumers), new OutboxProperties(batchSize),
+                transactionManager, meterRegistry);
+    }
+
+    private static List<Long> aggregateIds(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getAggregateId).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.user.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.exception.EmailAlreadyExistsException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Фильтр email до и после прогрева, и адрес, о котором фильтр не знает: его отсекает UQ_USER_EMAIL,
+ * а сервис отвечает тем же EmailAlreadyExistsException, что и при проверке запросом.
+ */
+@SpringBootTest
+@Import(TestFixtures.class)
+class EmailIndexTest {
+
+    @Autowired
+    private EmailIndex emailIndex;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void answersMaybePresentUntilWarmedUp() {
+        User saved = fixtures.saveUser("user", freeEmail());
+        EmailIndex index = new EmailIndex(userRepository, new EmailIndexProperties(1000, 0.01));
+
+        assertTrue(index.mightContain(saved.getEmail()));
+        assertTrue(index.mightContain(UUID.randomUUID() + "@mail.ru"));
+        // До прогрева удаление ничего не меняет: счётчики ещё не заполнены
+        index.remove(saved.getEmail());
+
+        index.warmUp();
+
+        assertTrue(index.mightContain(saved.getEmail()));
+        long misses = 0;
+        for (int i = 0; i < 100; i++) {
+            if (!index.mightContain(UUID.randomUUID() + "@mail.ru")) {
+                misses++;
+            }
+        }
+        assertTrue(misses > 0);
+    }
+
+    @Test
+    void createWithEmailUnknownToIndexMapsConstraintViolation() {
+        // Строка записана в обход сервиса, фильтр о ней не знает и пропускает проверку запросом
+        String email = freeEmail();
+        fixtures.saveUser("user", email);
+        assertFalse(emailIndex.mightContain(email));
+
+        EmailAlreadyExistsException e = assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.createUser(new UserDto(null, "user", email)));
+        assertEquals("Пользователь с таким email уже существует", e.getMessage());
+    }
+
+    @Test
+    void updateToEmailUnknownToIndexMapsConstraintViolation() {
+        String email = freeEmail();
+        fixtures.saveUser("user", email);
+        UserDto user = userService.createUser(new UserDto(null, "user", freeEmail()));
+
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.updateUser(user.getId(), new UserDto(null, null, email)));
+        assertEquals(user.getEmail(), userService.getUser(user.getId()).getEmail());
+    }
+
+    // Адрес, на котором прогретый фильтр отвечает «точно свободен», без ложного срабатывания
+    private String freeEmail() {
+        String email;
+        do {
+            email = UUID.randomUUID() + "@mail.ru";
+        } while (emailIndex.mightContain(email));
+        return email;
+    }
+}